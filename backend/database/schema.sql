@@ -116,4 +116,6 @@ CREATE INDEX idx_dreams_dream_date ON dreams(dream_date);
 CREATE INDEX idx_dreams_is_flagged ON dreams(is_flagged);
 CREATE INDEX idx_mood_entries_user_id ON mood_entries(user_id);
 CREATE INDEX idx_mood_entries_entry_date ON mood_entries(entry_date);
+CREATE INDEX idx_dreams_user_date_id ON dreams(user_id, dream_date, id);
+CREATE INDEX idx_mood_entries_user_date_id ON mood_entries(user_id, entry_date, id);
 CREATE INDEX idx_support_tickets_status ON support_tickets(status);
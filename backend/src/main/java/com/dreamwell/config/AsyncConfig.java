@@ -0,0 +1,82 @@
+package com.dreamwell.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+    
+    @Value("${interpretation.worker.core-size:4}")
+    private int interpretationCoreSize;
+    
+    @Value("${interpretation.worker.max-size:8}")
+    private int interpretationMaxSize;
+    
+    @Value("${interpretation.worker.queue-capacity:100}")
+    private int interpretationQueueCapacity;
+    
+    // 0 means half the available cores
+    @Value("${security.password.hash-threads:0}")
+    private int passwordHashThreads;
+    
+    @Value("${security.password.hash-queue-capacity:200}")
+    private int passwordHashQueueCapacity;
+    
+    @Value("${export.worker.threads:2}")
+    private int exportThreads;
+    
+    @Value("${export.worker.queue-capacity:20}")
+    private int exportQueueCapacity;
+    
+    // Declaring any executor switches off Boot's default one, so keep it for plain @Async work (e.g. emails)
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+    
+    // Bounded pool for Groq calls so a burst of submissions queues here instead of on Tomcat threads.
+    // When the queue is full new tasks are rejected rather than run on the caller.
+    @Bean(name = "interpretationExecutor")
+    public ThreadPoolTaskExecutor interpretationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(interpretationCoreSize);
+        executor.setMaxPoolSize(interpretationMaxSize);
+        executor.setQueueCapacity(interpretationQueueCapacity);
+        executor.setThreadNamePrefix("interpretation-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+    
+    // BCrypt is pure CPU: a fixed pool caps how many cores hashing can take from API traffic.
+    // A full queue rejects new work, which the client sees as 503.
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor() {
+        int threads = passwordHashThreads > 0
+                ? passwordHashThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(passwordHashQueueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        return executor;
+    }
+    
+    // Archive exports are long runs of disk I/O between short keyset batch reads, so only a few run
+    // at once. A full queue rejects new jobs (503); queued jobs lost on shutdown are failed by the purge.
+    @Bean(name = "exportExecutor")
+    public ThreadPoolTaskExecutor exportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportThreads);
+        executor.setMaxPoolSize(exportThreads);
+        executor.setQueueCapacity(exportQueueCapacity);
+        executor.setThreadNamePrefix("export-");
+        return executor;
+    }
+}
@@ -0,0 +1,82 @@
+package com.dreamwell.config;
+
+import com.dreamwell.service.GroqPoolMetrics;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Dedicated HTTP client for Groq so its pool and timeouts are isolated from any other WebClient use
+@Configuration
+public class GroqClientConfig {
+    
+    @Value("${groq.http.max-connections:50}")
+    private int maxConnections;
+    
+    @Value("${groq.http.pending-acquire-max:100}")
+    private int pendingAcquireMax;
+    
+    @Value("${groq.http.pending-acquire-timeout-ms:2000}")
+    private long pendingAcquireTimeoutMs;
+    
+    @Value("${groq.http.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+    
+    @Value("${groq.http.max-life-time-ms:300000}")
+    private long maxLifeTimeMs;
+    
+    @Value("${groq.http.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+    
+    @Value("${groq.http.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+    
+    @Value("${groq.http.response-timeout-ms:60000}")
+    private long responseTimeoutMs;
+    
+    @Value("${groq.http.http2:true}")
+    private boolean http2;
+    
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider groqConnectionProvider(GroqPoolMetrics groqPoolMetrics) {
+        return ConnectionProvider.builder("groq")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+                .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+                .metrics(true, () -> groqPoolMetrics)
+                .build();
+    }
+    
+    @Bean
+    public WebClient groqWebClient(WebClient.Builder webClientBuilder, ConnectionProvider groqConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(groqConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                // Longest allowed gap between reads of one response, i.e. a stalled socket fails here
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .doOnConnected(connection ->
+                    connection.addHandlerLast(new WriteTimeoutHandler(writeTimeoutMs, TimeUnit.MILLISECONDS))
+                )
+                .compress(true);
+        if (http2) {
+            // Negotiated over ALPN; falls back to HTTP/1.1 when the server does not offer h2
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
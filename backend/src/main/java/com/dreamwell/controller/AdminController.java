@@ -1,6 +1,7 @@
 package com.dreamwell.controller;
 
 import com.dreamwell.dto.ApiResponse;
+import com.dreamwell.dto.ListView;
 import com.dreamwell.dto.UserDTO;
 import com.dreamwell.entity.Dream;
 import com.dreamwell.entity.SupportTicket;
@@ -47,7 +48,10 @@ public class AdminController {
     }
     
     @GetMapping("/dreams/flagged")
-    public ResponseEntity<ApiResponse<List<Dream>>> getFlaggedDreams() {
+    public ResponseEntity<ApiResponse<?>> getFlaggedDreams(@RequestParam(required = false) String view) {
+        if (ListView.parse(view) == ListView.SUMMARY) {
+            return ResponseEntity.ok(ApiResponse.success(adminService.getFlaggedDreamSummaries()));
+        }
         List<Dream> dreams = adminService.getFlaggedDreams();
         return ResponseEntity.ok(ApiResponse.success(dreams));
     }
@@ -59,14 +63,22 @@ public class AdminController {
     }
     
     @GetMapping("/support/tickets")
-    public ResponseEntity<ApiResponse<List<SupportTicket>>> getAllTickets() {
+    public ResponseEntity<ApiResponse<?>> getAllTickets(@RequestParam(required = false) String view) {
+        if (ListView.parse(view) == ListView.SUMMARY) {
+            return ResponseEntity.ok(ApiResponse.success(adminService.getSupportTicketSummaries()));
+        }
         List<SupportTicket> tickets = adminService.getAllSupportTickets();
         return ResponseEntity.ok(ApiResponse.success(tickets));
     }
     
     @GetMapping("/support/tickets/status/{status}")
-    public ResponseEntity<ApiResponse<List<SupportTicket>>> getTicketsByStatus(@PathVariable String status) {
+    public ResponseEntity<ApiResponse<?>> getTicketsByStatus(
+            @PathVariable String status,
+            @RequestParam(required = false) String view) {
         SupportTicket.Status ticketStatus = SupportTicket.Status.valueOf(status.toUpperCase());
+        if (ListView.parse(view) == ListView.SUMMARY) {
+            return ResponseEntity.ok(ApiResponse.success(adminService.getSupportTicketSummariesByStatus(ticketStatus)));
+        }
         List<SupportTicket> tickets = adminService.getSupportTicketsByStatus(ticketStatus);
         return ResponseEntity.ok(ApiResponse.success(tickets));
     }
@@ -104,4 +116,58 @@ public class AdminController {
         SystemSettings setting = adminService.updateSystemSetting(key, value);
         return ResponseEntity.ok(ApiResponse.success("Setting updated", setting));
     }
+    
+    @GetMapping("/interpretation-cache")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getInterpretationCacheStats() {
+        Map<String, Object> stats = adminService.getInterpretationCacheStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
+    @DeleteMapping("/interpretation-cache")
+    public ResponseEntity<ApiResponse<Integer>> purgeInterpretationCache() {
+        int purged = adminService.purgeInterpretationCache();
+        return ResponseEntity.ok(ApiResponse.success("Interpretation cache purged", purged));
+    }
+    
+    @GetMapping("/groq/pool")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGroqPoolStats() {
+        Map<String, Object> stats = adminService.getGroqPoolStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
+    @GetMapping("/groq/resilience")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGroqResilienceStats() {
+        Map<String, Object> stats = adminService.getGroqResilienceStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
+    @GetMapping("/security/throttle")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAuthThrottleStats() {
+        Map<String, Object> stats = adminService.getAuthThrottleStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
+    @GetMapping("/security/hashing")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getPasswordHashingStats() {
+        Map<String, Object> stats = adminService.getPasswordHashingStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
+    @GetMapping("/groq/coalescing")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getGroqCoalescingStats() {
+        Map<String, Object> stats = adminService.getGroqCoalescingStats();
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
+    @PostMapping("/analytics/rollups/rebuild")
+    public ResponseEntity<ApiResponse<String>> rebuildAnalyticsRollups() {
+        adminService.rebuildAnalyticsRollups();
+        return ResponseEntity.accepted().body(ApiResponse.success("Analytics rollup rebuild started", null));
+    }
+    
+    @PostMapping("/analytics/counters/reconcile")
+    public ResponseEntity<ApiResponse<String>> reconcileSystemCounters() {
+        adminService.reconcileSystemCounters();
+        return ResponseEntity.accepted().body(ApiResponse.success("System counter reconcile started", null));
+    }
 }
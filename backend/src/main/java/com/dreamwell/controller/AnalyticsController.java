@@ -1,15 +1,30 @@
 package com.dreamwell.controller;
 
 import com.dreamwell.dto.ApiResponse;
+import com.dreamwell.dto.ExportJobResponse;
+import com.dreamwell.security.AuthenticatedUser;
 import com.dreamwell.service.AnalyticsService;
+import com.dreamwell.service.DataExportService;
+import com.dreamwell.service.DataVersionRegistry;
+import com.dreamwell.service.ExportJobService;
+import com.dreamwell.service.RangeFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.Map;
 
 @RestController
@@ -19,22 +34,68 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
     
+    @Autowired
+    private DataExportService dataExportService;
+    
+    @Autowired
+    private DataVersionRegistry dataVersions;
+    
+    @Autowired
+    private ExportJobService exportJobService;
+    
+    @Autowired
+    private RangeFileSender rangeFileSender;
+    
     @GetMapping
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getAnalytics() {
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getAnalytics(WebRequest webRequest) {
+        if (dataVersions.notModified(webRequest)) {
+            return null;
+        }
         Map<String, Object> analytics = analyticsService.getUserAnalytics();
         return ResponseEntity.ok(ApiResponse.success(analytics));
     }
     
+    // format=csv (default) or ndjson; gzip=true sends a .gz file. Rows are streamed in keyset
+    // batches, so the export never sits in memory as a whole.
     @GetMapping("/export")
-    public ResponseEntity<String> exportData() {
-        String csvData = analyticsService.exportUserData();
+    public ResponseEntity<StreamingResponseBody> exportData(
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        DataExportService.Format exportFormat = DataExportService.Format.parse(format);
+        // Resolved here: the body is written on an async thread
+        Long userId = AuthenticatedUser.current().id();
         
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv"));
-        headers.setContentDispositionFormData("attachment", "dreamwell-data.csv");
+        headers.setContentType(gzip
+            ? MediaType.parseMediaType("application/gzip")
+            : MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"));
+        headers.setContentDispositionFormData("attachment", exportFormat.fileName(gzip));
         
+        StreamingResponseBody body = out -> dataExportService.write(userId, exportFormat, gzip, out);
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(csvData);
+                .body(body);
+    }
+    
+    // Archive of dreams, interpretations and moods built in the background; poll the job
+    // until it is COMPLETED, then download it before it expires
+    @PostMapping("/exports")
+    public ResponseEntity<ApiResponse<ExportJobResponse>> createExport(@RequestParam(required = false) String format) {
+        ExportJobResponse job = exportJobService.create(format);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Export started", job));
+    }
+    
+    @GetMapping("/exports/{id}")
+    public ResponseEntity<ApiResponse<ExportJobResponse>> getExport(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(exportJobService.getStatus(id)));
+    }
+    
+    // Supports Range/If-Range so an interrupted download can resume
+    @GetMapping("/exports/{id}/download")
+    public void downloadExport(@PathVariable Long id, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        ExportJobService.ExportFile file = exportJobService.getFile(id);
+        rangeFileSender.send(request, response, file.path(), "application/zip", file.fileName(), file.etag());
     }
 }
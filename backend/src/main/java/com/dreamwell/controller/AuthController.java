@@ -4,6 +4,7 @@ import com.dreamwell.dto.*;
 import com.dreamwell.service.AuthService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,14 +18,18 @@ public class AuthController {
     private AuthService authService;
     
     @PostMapping("/signup")
-    public ResponseEntity<ApiResponse<AuthResponse>> signup(@Valid @RequestBody SignupRequest request) {
-        AuthResponse response = authService.signup(request);
+    public ResponseEntity<ApiResponse<AuthResponse>> signup(
+            @Valid @RequestBody SignupRequest request,
+            @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent) {
+        AuthResponse response = authService.signup(request, userAgent);
         return ResponseEntity.ok(ApiResponse.success("Signup successful", response));
     }
     
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody AuthRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<ApiResponse<AuthResponse>> login(
+            @Valid @RequestBody AuthRequest request,
+            @RequestHeader(value = HttpHeaders.USER_AGENT, required = false) String userAgent) {
+        AuthResponse response = authService.login(request, userAgent);
         return ResponseEntity.ok(ApiResponse.success("Login successful", response));
     }
     
@@ -35,6 +40,13 @@ public class AuthController {
         return ResponseEntity.ok(ApiResponse.success("Token refreshed", response));
     }
     
+    // Ends this device's session only
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<String>> logout(@RequestBody Map<String, String> request) {
+        authService.logout(request.get("refreshToken"));
+        return ResponseEntity.ok(ApiResponse.success("Logged out", null));
+    }
+    
     @GetMapping("/verify-email")
     public ResponseEntity<ApiResponse<String>> verifyEmail(@RequestParam String token) {
         authService.verifyEmail(token);
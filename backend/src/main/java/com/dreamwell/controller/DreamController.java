@@ -1,14 +1,25 @@
 package com.dreamwell.controller;
 
 import com.dreamwell.dto.ApiResponse;
+import com.dreamwell.dto.CursorPage;
 import com.dreamwell.dto.DreamInterpretationDTO;
 import com.dreamwell.dto.DreamRequest;
 import com.dreamwell.dto.DreamResponse;
+import com.dreamwell.dto.DreamSummary;
+import com.dreamwell.dto.InterpretationStatusResponse;
+import com.dreamwell.dto.ListView;
+import com.dreamwell.service.DataVersionRegistry;
 import com.dreamwell.service.DreamService;
+import com.dreamwell.service.IdempotencyService;
+import com.dreamwell.service.InterpretationRateLimiter;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -19,20 +30,55 @@ public class DreamController {
     @Autowired
     private DreamService dreamService;
     
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private InterpretationRateLimiter rateLimiter;
+    
+    @Autowired
+    private DataVersionRegistry dataVersions;
+    
+    // With an Idempotency-Key, a retried request replays the first response instead of logging the dream twice
     @PostMapping
-    public ResponseEntity<ApiResponse<DreamResponse>> createDream(@Valid @RequestBody DreamRequest request) {
-        DreamResponse response = dreamService.createDream(request);
-        return ResponseEntity.ok(ApiResponse.success("Dream logged successfully", response));
+    public ResponseEntity<?> createDream(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody DreamRequest request) {
+        return idempotencyService.execute(idempotencyKey, "POST /dreams", request, () -> {
+            // Inside the idempotent block: a replay costs the user nothing
+            rateLimiter.acquire();
+            DreamResponse response = dreamService.createDream(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Dream logged successfully, interpretation in progress", response));
+        });
     }
     
+    // ?view=summary returns DreamSummary rows; the full dream comes from GET /dreams/{id}
     @GetMapping
-    public ResponseEntity<ApiResponse<List<DreamResponse>>> getAllDreams() {
-        List<DreamResponse> dreams = dreamService.getAllDreams();
-        return ResponseEntity.ok(ApiResponse.success(dreams));
+    public ResponseEntity<ApiResponse<?>> getAllDreams(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String view,
+            WebRequest webRequest) {
+        ListView listView = ListView.parse(view);
+        if (dataVersions.notModified(webRequest)) {
+            return null;
+        }
+        if (listView == ListView.SUMMARY) {
+            CursorPage<DreamSummary> dreams = dreamService.getDreamSummaries(cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page(dreams));
+        }
+        CursorPage<DreamResponse> dreams = dreamService.getAllDreams(cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page(dreams));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<DreamResponse>> getDreamById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<DreamResponse>> getDreamById(@PathVariable Long id, WebRequest webRequest) {
+        // A 304 must not confirm that someone else's dream exists
+        dreamService.checkDreamAccess(id);
+        if (dataVersions.notModified(webRequest)) {
+            return null;
+        }
         DreamResponse dream = dreamService.getDreamById(id);
         return ResponseEntity.ok(ApiResponse.success(dream));
     }
@@ -52,14 +98,41 @@ public class DreamController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<DreamResponse>>> searchDreams(@RequestParam String keyword) {
-        List<DreamResponse> dreams = dreamService.searchDreams(keyword);
-        return ResponseEntity.ok(ApiResponse.success(dreams));
+    public ResponseEntity<ApiResponse<List<DreamResponse>>> searchDreams(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<DreamResponse> dreams = dreamService.searchDreams(keyword, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page(dreams));
     }
     
     @PostMapping("/{id}/reinterpret")
-    public ResponseEntity<ApiResponse<DreamInterpretationDTO>> reinterpretDream(@PathVariable Long id) {
-        DreamInterpretationDTO interpretation = dreamService.reinterpretDream(id);
-        return ResponseEntity.ok(ApiResponse.success("Dream reinterpreted successfully", interpretation));
+    public ResponseEntity<?> reinterpretDream(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable Long id) {
+        return idempotencyService.execute(idempotencyKey, "POST /dreams/" + id + "/reinterpret", null, () -> {
+            rateLimiter.acquire();
+            DreamInterpretationDTO interpretation = dreamService.reinterpretDream(id);
+            return ResponseEntity.ok(ApiResponse.success("Dream reinterpreted successfully", interpretation));
+        });
+    }
+    
+    @GetMapping("/{id}/interpretation")
+    public ResponseEntity<ApiResponse<InterpretationStatusResponse>> getInterpretationStatus(@PathVariable Long id) {
+        InterpretationStatusResponse status = dreamService.getInterpretationStatus(id);
+        return ResponseEntity.ok(ApiResponse.success(status));
+    }
+    
+    @GetMapping(value = "/{id}/interpretation/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToInterpretation(@PathVariable Long id) {
+        return dreamService.subscribeToInterpretation(id);
+    }
+    
+    @GetMapping(value = "/{id}/interpretation/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamInterpretation(@PathVariable Long id) {
+        // Requests for someone else's dream must not spend the caller's quota
+        dreamService.checkDreamAccess(id);
+        rateLimiter.acquire();
+        return dreamService.streamInterpretation(id);
     }
 }
@@ -0,0 +1,119 @@
+package com.dreamwell.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Local stand-in for the Groq chat completions API, for exercising timeouts, retries and the
+// circuit breaker. Only registered when groq.stub.enabled=true; point groq.api.url at
+// http://localhost:${PORT}/api/public/groq-stub/chat/completions to use it.
+@RestController
+@RequestMapping("/public/groq-stub")
+@ConditionalOnProperty(name = "groq.stub.enabled", havingValue = "true")
+public class GroqStubController {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${groq.stub.latency-ms:0}")
+    private volatile long latencyMs;
+    
+    @Value("${groq.stub.error-rate:0}")
+    private volatile double errorRate;
+    
+    @Value("${groq.stub.error-status:503}")
+    private volatile int errorStatus;
+    
+    @Value("${groq.stub.retry-after-seconds:0}")
+    private volatile int retryAfterSeconds;
+    
+    @PostMapping("/chat/completions")
+    public ResponseEntity<String> chatCompletions(@RequestBody Map<String, Object> request) throws Exception {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        
+        if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+            ResponseEntity.BodyBuilder error = ResponseEntity.status(errorStatus);
+            if (retryAfterSeconds > 0) {
+                error.header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            }
+            return error.body("{\"error\":{\"message\":\"Injected stub failure\"}}");
+        }
+        
+        Map<String, String> interpretation = new HashMap<>();
+        interpretation.put("shortSummary", "A stub interpretation of your dream.");
+        interpretation.put("detailedExplanation", "This response was generated by the local Groq stub.");
+        interpretation.put("predictedEmotions", "calm, curiosity");
+        interpretation.put("whyOccurred", "The stub always answers the same way.");
+        interpretation.put("suggestedActions", "- Keep logging your dreams");
+        interpretation.put("riskFlags", "none");
+        interpretation.put("symbols", "water, door");
+        
+        String content = objectMapper.writeValueAsString(interpretation);
+        if (Boolean.TRUE.equals(request.get("stream"))) {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_TYPE, "text/event-stream")
+                    .body(streamBody(content));
+        }
+        
+        Map<String, Object> response = Map.of(
+            "model", String.valueOf(request.get("model")),
+            "choices", List.of(Map.of(
+                "index", 0,
+                "message", Map.of("role", "assistant", "content", content),
+                "finish_reason", "stop"
+            ))
+        );
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .body(objectMapper.writeValueAsString(response));
+    }
+    
+    // OpenAI-style chunks of a few characters each, terminated by [DONE]
+    private String streamBody(String content) throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < content.length(); i += 16) {
+            String delta = content.substring(i, Math.min(content.length(), i + 16));
+            Map<String, Object> chunk = Map.of(
+                "choices", List.of(Map.of("index", 0, "delta", Map.of("content", delta)))
+            );
+            body.append("data: ").append(objectMapper.writeValueAsString(chunk)).append("\n\n");
+        }
+        body.append("data: [DONE]\n\n");
+        return body.toString();
+    }
+    
+    // Change the injected faults while the application is running
+    @PutMapping("/faults")
+    public ResponseEntity<Map<String, Object>> updateFaults(@RequestBody Map<String, Number> faults) {
+        if (faults.containsKey("latencyMs")) {
+            latencyMs = faults.get("latencyMs").longValue();
+        }
+        if (faults.containsKey("errorRate")) {
+            errorRate = faults.get("errorRate").doubleValue();
+        }
+        if (faults.containsKey("errorStatus")) {
+            errorStatus = faults.get("errorStatus").intValue();
+        }
+        if (faults.containsKey("retryAfterSeconds")) {
+            retryAfterSeconds = faults.get("retryAfterSeconds").intValue();
+        }
+        
+        Map<String, Object> current = new HashMap<>();
+        current.put("latencyMs", latencyMs);
+        current.put("errorRate", errorRate);
+        current.put("errorStatus", errorStatus);
+        current.put("retryAfterSeconds", retryAfterSeconds);
+        return ResponseEntity.ok(current);
+    }
+}
@@ -1,14 +1,19 @@
 package com.dreamwell.controller;
 
 import com.dreamwell.dto.ApiResponse;
+import com.dreamwell.dto.CursorPage;
+import com.dreamwell.dto.ListView;
 import com.dreamwell.dto.MoodEntryRequest;
 import com.dreamwell.dto.MoodEntryResponse;
+import com.dreamwell.dto.MoodEntrySummary;
+import com.dreamwell.service.DataVersionRegistry;
 import com.dreamwell.service.MoodService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,22 +25,42 @@ public class MoodController {
     @Autowired
     private MoodService moodService;
     
+    @Autowired
+    private DataVersionRegistry dataVersions;
+    
     @PostMapping
     public ResponseEntity<ApiResponse<MoodEntryResponse>> createMoodEntry(@Valid @RequestBody MoodEntryRequest request) {
         MoodEntryResponse response = moodService.createMoodEntry(request);
         return ResponseEntity.ok(ApiResponse.success("Mood entry created successfully", response));
     }
     
+    // ?view=summary leaves out notes and triggers
     @GetMapping
-    public ResponseEntity<ApiResponse<List<MoodEntryResponse>>> getAllMoodEntries() {
-        List<MoodEntryResponse> entries = moodService.getAllMoodEntries();
-        return ResponseEntity.ok(ApiResponse.success(entries));
+    public ResponseEntity<ApiResponse<?>> getAllMoodEntries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String view,
+            WebRequest webRequest) {
+        ListView listView = ListView.parse(view);
+        if (dataVersions.notModified(webRequest)) {
+            return null;
+        }
+        if (listView == ListView.SUMMARY) {
+            CursorPage<MoodEntrySummary> entries = moodService.getMoodEntrySummaries(cursor, limit);
+            return ResponseEntity.ok(ApiResponse.page(entries));
+        }
+        CursorPage<MoodEntryResponse> entries = moodService.getAllMoodEntries(cursor, limit);
+        return ResponseEntity.ok(ApiResponse.page(entries));
     }
     
     @GetMapping("/range")
     public ResponseEntity<ApiResponse<List<MoodEntryResponse>>> getMoodEntriesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest webRequest) {
+        if (dataVersions.notModified(webRequest)) {
+            return null;
+        }
         List<MoodEntryResponse> entries = moodService.getMoodEntriesByDateRange(startDate, endDate);
         return ResponseEntity.ok(ApiResponse.success(entries));
     }
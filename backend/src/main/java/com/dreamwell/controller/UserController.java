@@ -2,10 +2,12 @@ package com.dreamwell.controller;
 
 import com.dreamwell.dto.ApiResponse;
 import com.dreamwell.dto.UserDTO;
+import com.dreamwell.service.DataVersionRegistry;
 import com.dreamwell.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 
@@ -16,8 +18,15 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private DataVersionRegistry dataVersions;
+    
     @GetMapping("/profile")
-    public ResponseEntity<ApiResponse<UserDTO>> getProfile() {
+    public ResponseEntity<ApiResponse<UserDTO>> getProfile(WebRequest webRequest) {
+        // The usage counters refill over time, so they are part of the tag
+        if (dataVersions.notModified(webRequest, userService.getUsageTag())) {
+            return null;
+        }
         UserDTO user = userService.getCurrentUserProfile();
         return ResponseEntity.ok(ApiResponse.success(user));
     }
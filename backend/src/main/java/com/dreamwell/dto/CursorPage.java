@@ -0,0 +1,91 @@
+package com.dreamwell.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    
+    private List<T> items;
+    private String nextCursor;
+    
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit < 1) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+    
+    // Cursors are opaque to clients: the sort key of the last row, base64url encoded
+    public static String encodeCursor(Object sortKey, Long id) {
+        String raw = sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+    
+    // Keyset paging on (sortKey, id) shared by the list endpoints: decodes the cursor, fetches one
+    // row more than the page to learn whether another page exists, and encodes the next cursor
+    public static <K, T> CursorPage<T> fetch(String cursor, Integer limit,
+                                             Function<String, K> parseSortKey,
+                                             Function<Pageable, List<T>> firstPage,
+                                             PageAfter<K, T> pageAfter,
+                                             Function<T, Object> sortKeyOf,
+                                             Function<T, Long> idOf) {
+        int pageSize = clampLimit(limit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        
+        List<T> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = firstPage.apply(pageable);
+        } else {
+            String[] position = decodeCursor(cursor);
+            K sortKey;
+            Long id;
+            try {
+                sortKey = parseSortKey.apply(position[0]);
+                id = Long.parseLong(position[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            rows = pageAfter.fetch(sortKey, id, pageable);
+        }
+        
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            T last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(sortKeyOf.apply(last), idOf.apply(last));
+        }
+        return new CursorPage<>(rows, nextCursor);
+    }
+    
+    @FunctionalInterface
+    public interface PageAfter<K, T> {
+        List<T> fetch(K sortKey, Long id, Pageable pageable);
+    }
+}
@@ -1,6 +1,7 @@
 package com.dreamwell.dto;
 
 import com.dreamwell.entity.Dream;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -23,8 +24,13 @@ public class DreamResponse {
     private Boolean isFlagged;
     private String flagReason;
     private LocalDateTime createdAt;
+    private String interpretationStatus;
     private DreamInterpretationDTO interpretation;
     
+    // Highlighted match, only set on search results
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String snippet;
+    
     public static DreamResponse fromEntity(Dream dream) {
         return new DreamResponse(
             dream.getId(),
@@ -39,6 +45,11 @@ public class DreamResponse {
             dream.getIsFlagged(),
             dream.getFlagReason(),
             dream.getCreatedAt(),
+            // Dreams logged before async interpretation have no status and were interpreted inline
+            dream.getInterpretationStatus() != null
+                ? dream.getInterpretationStatus().name()
+                : Dream.InterpretationStatus.COMPLETED.name(),
+            null,
             null
         );
     }
@@ -0,0 +1,55 @@
+package com.dreamwell.dto;
+
+import com.dreamwell.entity.Dream;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// List row for a dream: no full text, notes or interpretation body. Built directly by
+// JPQL constructor expressions, so no Dream entity is loaded or tracked.
+@Data
+@NoArgsConstructor
+public class DreamSummary {
+    public static final int EXCERPT_LENGTH = 200;
+    
+    private Long id;
+    private Long userId;
+    private String title;
+    private String excerpt;
+    private String tags;
+    private String moodAtWake;
+    private Integer sleepQuality;
+    private LocalDateTime dreamDate;
+    private Boolean isPrivate;
+    private Boolean isFlagged;
+    private String flagReason;
+    private LocalDateTime createdAt;
+    private String interpretationStatus;
+    private String shortSummary;
+    private Boolean hasRiskFlag;
+    
+    public DreamSummary(Long id, Long userId, String title, String excerpt, String tags,
+                        Dream.Mood moodAtWake, Integer sleepQuality, LocalDateTime dreamDate,
+                        Boolean isPrivate, Boolean isFlagged, String flagReason, LocalDateTime createdAt,
+                        Dream.InterpretationStatus interpretationStatus, String shortSummary, Boolean hasRiskFlag) {
+        this.id = id;
+        this.userId = userId;
+        this.title = title;
+        this.excerpt = excerpt;
+        this.tags = tags;
+        this.moodAtWake = moodAtWake.name();
+        this.sleepQuality = sleepQuality;
+        this.dreamDate = dreamDate;
+        this.isPrivate = isPrivate;
+        this.isFlagged = isFlagged;
+        this.flagReason = flagReason;
+        this.createdAt = createdAt;
+        // Same fallback as DreamResponse for dreams logged before async interpretation
+        this.interpretationStatus = interpretationStatus != null
+            ? interpretationStatus.name()
+            : Dream.InterpretationStatus.COMPLETED.name();
+        this.shortSummary = shortSummary;
+        this.hasRiskFlag = hasRiskFlag;
+    }
+}
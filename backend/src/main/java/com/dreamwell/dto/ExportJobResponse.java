@@ -0,0 +1,54 @@
+package com.dreamwell.dto;
+
+import com.dreamwell.entity.ExportJob;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobResponse {
+    private Long id;
+    private String format;
+    private String status;
+    private Long totalRecords;
+    private Long recordsWritten;
+    // 0-100, once the total is known
+    private Integer progress;
+    private Long fileSize;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+    
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+    
+    public static ExportJobResponse fromEntity(ExportJob job) {
+        Integer progress = null;
+        if (job.getStatus() == ExportJob.Status.COMPLETED) {
+            progress = 100;
+        } else if (job.getTotalRecords() != null) {
+            progress = job.getTotalRecords() == 0
+                ? 100
+                : (int) Math.min(99, job.getRecordsWritten() * 100 / job.getTotalRecords());
+        }
+        return new ExportJobResponse(
+            job.getId(),
+            job.getFormat().name(),
+            job.getStatus().name(),
+            job.getTotalRecords(),
+            job.getRecordsWritten(),
+            progress,
+            job.getFileSize(),
+            job.getError(),
+            job.getCreatedAt(),
+            job.getCompletedAt(),
+            job.getExpiresAt()
+        );
+    }
+}
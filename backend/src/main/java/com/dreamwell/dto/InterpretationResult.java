@@ -0,0 +1,13 @@
+package com.dreamwell.dto;
+
+// Structured interpretation as produced by Groq, before it is stored as a DreamInterpretation
+public record InterpretationResult(
+    String shortSummary,
+    String detailedExplanation,
+    String predictedEmotions,
+    String whyOccurred,
+    String suggestedActions,
+    String riskFlags,
+    String symbols
+) {
+}
@@ -0,0 +1,15 @@
+package com.dreamwell.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InterpretationStatusResponse {
+    private Long dreamId;
+    private String status;
+    private String error;
+    private DreamInterpretationDTO interpretation;
+}
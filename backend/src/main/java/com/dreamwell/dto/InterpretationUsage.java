@@ -0,0 +1,19 @@
+package com.dreamwell.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InterpretationUsage {
+    private Integer usedToday;
+    private Integer dailyQuota;
+    private Integer remainingToday;
+    // Interpretations that can start right now before the per-minute limit applies
+    private Integer burstAvailable;
+    private LocalDateTime quotaResetsAt;
+}
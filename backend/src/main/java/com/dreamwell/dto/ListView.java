@@ -0,0 +1,18 @@
+package com.dreamwell.dto;
+
+// Shape of list responses, chosen with ?view=. SUMMARY rows come from constructor-expression
+// queries that select only the listed columns; full bodies are loaded from the detail endpoint.
+public enum ListView {
+    FULL, SUMMARY;
+    
+    public static ListView parse(String view) {
+        if (view == null || view.isBlank()) {
+            return FULL;
+        }
+        try {
+            return valueOf(view.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid view: " + view);
+        }
+    }
+}
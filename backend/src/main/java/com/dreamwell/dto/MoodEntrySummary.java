@@ -0,0 +1,25 @@
+package com.dreamwell.dto;
+
+import com.dreamwell.entity.MoodEntry;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// List row for a mood entry without notes and triggers; built by a constructor expression
+@Data
+@NoArgsConstructor
+public class MoodEntrySummary {
+    private Long id;
+    private LocalDate entryDate;
+    private String mood;
+    private LocalDateTime createdAt;
+    
+    public MoodEntrySummary(Long id, LocalDate entryDate, MoodEntry.Mood mood, LocalDateTime createdAt) {
+        this.id = id;
+        this.entryDate = entryDate;
+        this.mood = mood.name();
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,31 @@
+package com.dreamwell.dto;
+
+import com.dreamwell.entity.SupportTicket;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Admin list row for a ticket without the message, reply or user associations
+@Data
+@NoArgsConstructor
+public class SupportTicketSummary {
+    private Long id;
+    private String name;
+    private String email;
+    private String subject;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime repliedAt;
+    
+    public SupportTicketSummary(Long id, String name, String email, String subject,
+                                SupportTicket.Status status, LocalDateTime createdAt, LocalDateTime repliedAt) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.subject = subject;
+        this.status = status.name();
+        this.createdAt = createdAt;
+        this.repliedAt = repliedAt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.dreamwell.dto;
 
 import com.dreamwell.entity.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,6 +23,10 @@ public class UserDTO {
     private String language;
     private LocalDateTime createdAt;
     
+    // Only filled in for the user's own profile
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private InterpretationUsage interpretationUsage;
+    
     public static UserDTO fromEntity(User user) {
         return new UserDTO(
             user.getId(),
@@ -33,7 +38,8 @@ public class UserDTO {
             user.getTheme(),
             user.getNotificationsEnabled(),
             user.getLanguage(),
-            user.getCreatedAt()
+            user.getCreatedAt(),
+            null
         );
     }
 }
@@ -0,0 +1,53 @@
+package com.dreamwell.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "analytics_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_analytics_rollups_bucket", columnNames = {"user_id", "metric", "bucket", "bucket_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsRollup {
+    
+    // Undated metrics use this bucket date so the unique key never contains NULL
+    public static final LocalDate ALL_TIME = LocalDate.EPOCH;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Metric metric;
+    
+    @Column(nullable = false)
+    private String bucket;
+    
+    @Column(nullable = false)
+    private LocalDate bucketDate;
+    
+    @Column(nullable = false)
+    private Long itemCount = 0L;
+    
+    @Column(nullable = false)
+    private Long valueTotal = 0L;
+    
+    public enum Metric {
+        REBUILT,     // marker written by a full rebuild
+        DREAMS,      // all-time dream count
+        DREAM_MOOD,  // per wake mood: dream count and sleep-quality sum
+        DREAM_DAY,   // per dream date: dream count and sleep-quality sum
+        SYMBOL,      // per interpretation symbol: occurrences
+        MOOD_DAY     // per mood entry date and mood: entry count
+    }
+}
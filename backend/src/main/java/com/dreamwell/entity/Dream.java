@@ -10,7 +10,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "dreams")
+@Table(name = "dreams", indexes = {
+    @Index(name = "idx_dreams_user_date_id", columnList = "user_id, dream_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -57,6 +59,12 @@ public class Dream {
     @Column(columnDefinition = "TEXT")
     private String flagReason;
     
+    @Enumerated(EnumType.STRING)
+    private InterpretationStatus interpretationStatus = InterpretationStatus.PENDING;
+    
+    @Column(columnDefinition = "TEXT")
+    private String interpretationError;
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -68,4 +76,8 @@ public class Dream {
     public enum Mood {
         VERY_HAPPY, HAPPY, NEUTRAL, SAD, VERY_SAD, ANXIOUS, PEACEFUL, CONFUSED
     }
+    
+    public enum InterpretationStatus {
+        PENDING, COMPLETED, FAILED
+    }
 }
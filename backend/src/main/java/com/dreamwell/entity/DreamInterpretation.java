@@ -8,8 +8,11 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
+// At most one row per dream; existing duplicates are removed by db/dream-interpretations.sql
 @Entity
-@Table(name = "dream_interpretations")
+@Table(name = "dream_interpretations", indexes = {
+    @Index(name = "idx_dream_interpretations_dream_id", columnList = "dream_id", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,65 @@
+package com.dreamwell.entity;
+
+import com.dreamwell.service.DataExportService;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+// A background export: queued by the user, written to local disk by the export pool, then
+// downloadable until expires_at, when the file and the row are purged
+@Entity
+@Table(name = "export_jobs", indexes = {
+    @Index(name = "idx_export_jobs_user_id", columnList = "user_id"),
+    @Index(name = "idx_export_jobs_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DataExportService.Format format;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.QUEUED;
+    
+    private Long totalRecords;
+    
+    @Column(nullable = false)
+    private Long recordsWritten = 0L;
+    
+    private String filePath;
+    
+    private Long fileSize;
+    
+    @Column(columnDefinition = "TEXT")
+    private String error;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime completedAt;
+    
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+    
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
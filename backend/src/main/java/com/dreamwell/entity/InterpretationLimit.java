@@ -0,0 +1,31 @@
+package com.dreamwell.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Shared rate-limit state for multi-node deployments (interpretation.rate-limit.mode=database).
+// Same model as the in-memory limiter: a theoretical arrival time plus a per-day counter.
+@Entity
+@Table(name = "interpretation_limits")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InterpretationLimit {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    // Epoch millis at which the bucket would be full again
+    @Column(name = "tat_ms", nullable = false)
+    private Long tatMs;
+    
+    // UTC epoch day that quotaUsed belongs to
+    @Column(name = "quota_day", nullable = false)
+    private Long quotaDay;
+    
+    @Column(name = "quota_used", nullable = false)
+    private Integer quotaUsed;
+}
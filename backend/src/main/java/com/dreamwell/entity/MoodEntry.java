@@ -10,7 +10,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "mood_entries")
+@Table(name = "mood_entries", indexes = {
+    @Index(name = "idx_mood_entries_user_date_id", columnList = "user_id, entry_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -8,8 +8,14 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
+// One row per signed-in device. Only the SHA-256 of the token is stored; the token itself
+// exists solely on the client. Each refresh replaces the row (rotation).
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
+    @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id"),
+    @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,10 +29,13 @@ public class RefreshToken {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @Column(nullable = false, unique = true)
-    private String token;
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
     
-    @Column(nullable = false)
+    // User-Agent at sign-in, so sessions can be told apart
+    private String deviceName;
+    
+    @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
     
     @CreationTimestamp
@@ -0,0 +1,30 @@
+package com.dreamwell.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A deleted account whose access tokens may still be unexpired. Shared by every instance and
+// kept across restarts; the row is dropped once the last token issued to the account has expired.
+@Entity
+@Table(name = "revoked_accounts", indexes = {
+    @Index(name = "idx_revoked_accounts_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedAccount {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,37 @@
+package com.dreamwell.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "system_counters", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_system_counters_name", columnNames = {"category", "name"})
+}, indexes = {
+    @Index(name = "idx_system_counters_category_value", columnList = "category, counter_value")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SystemCounter {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Category category;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(name = "counter_value", nullable = false)
+    private Long value = 0L;
+    
+    public enum Category {
+        TOTAL,   // entity counts shown on the admin dashboard
+        SYMBOL   // global dream symbol occurrences
+    }
+}
@@ -39,6 +39,15 @@ public class User {
     @Column(nullable = false)
     private Boolean isEmailVerified = false;
     
+    // Bumped whenever the account is activated or deactivated; access tokens embed it
+    @Column(columnDefinition = "integer default 0")
+    private Integer statusVersion = 0;
+    
+    // Bumped by every write to the user's data; drives ETags. Only changed through
+    // UserRepository.incrementDataVersion so a stale entity save cannot roll it back.
+    @Column(columnDefinition = "bigint default 0", insertable = false, updatable = false)
+    private Long dataVersion;
+    
     private String emailVerificationToken;
     
     private LocalDateTime emailVerificationTokenExpiry;
@@ -1,6 +1,9 @@
 package com.dreamwell.exception;
 
 import com.dreamwell.dto.ApiResponse;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -23,6 +26,53 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
     
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiResponse<String>> handleRateLimitExceeded(RateLimitExceededException ex) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    // Groq shed the call (breaker open, bulkhead full) or failed upstream; either way it is ours
+    // to retry later, not a bad request. Upstream bodies are only logged.
+    @ExceptionHandler(GroqApiException.class)
+    public ResponseEntity<ApiResponse<String>> handleGroqApiException(GroqApiException ex) {
+        System.err.println("Interpretation unavailable: " + ex.getMessage());
+        boolean throttled = ex.getStatus() == HttpStatus.TOO_MANY_REQUESTS.value();
+        return ResponseEntity
+                .status(throttled ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, ex.getRetryAfter() != null ? ex.getRetryAfter() : "1")
+                .body(ApiResponse.error(throttled
+                    ? "Interpretation service is busy, please try again later"
+                    : "Interpretation service is temporarily unavailable, please try again later"));
+    }
+    
+    // A saturated bounded pool (e.g. password hashing): transient, so tell the client to retry
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ApiResponse<String>> handleTaskRejected(TaskRejectedException ex) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ApiResponse.error("Server is busy, please try again"));
+    }
+    
+    // Constraint failures the service did not translate are server faults; keep SQL out of the response
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponse<String>> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        System.err.println("Data integrity violation: " + ex.getMostSpecificCause().getMessage());
+        return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Could not save the request, please try again"));
+    }
+    
+    @ExceptionHandler(IdempotencyException.class)
+    public ResponseEntity<ApiResponse<String>> handleIdempotencyException(IdempotencyException ex) {
+        return ResponseEntity
+                .status(ex.getStatus())
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+    
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ApiResponse<String>> handleBadCredentials(BadCredentialsException ex) {
         return ResponseEntity
@@ -0,0 +1,22 @@
+package com.dreamwell.exception;
+
+// Error status from Groq, kept so the resilience layer can tell throttling and outages from bad requests
+public class GroqApiException extends RuntimeException {
+    
+    private final int status;
+    private final String retryAfter;
+    
+    public GroqApiException(int status, String retryAfter, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+    
+    public int getStatus() {
+        return status;
+    }
+    
+    public String getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,18 @@
+package com.dreamwell.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Idempotency-Key conflicts: reused for a different request (422) or still running elsewhere (409)
+public class IdempotencyException extends RuntimeException {
+    
+    private final HttpStatus status;
+    
+    public IdempotencyException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+    
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
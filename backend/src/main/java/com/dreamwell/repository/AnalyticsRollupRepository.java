@@ -0,0 +1,47 @@
+package com.dreamwell.repository;
+
+import com.dreamwell.entity.AnalyticsRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AnalyticsRollupRepository extends JpaRepository<AnalyticsRollup, Long> {
+    
+    // Everything /analytics needs in one query: all-time rows plus dated rows inside the window
+    @Query("SELECT r FROM AnalyticsRollup r WHERE r.userId = :userId AND " +
+           "(r.bucketDate = :allTime OR r.bucketDate >= :since)")
+    List<AnalyticsRollup> findForDashboard(@Param("userId") Long userId, 
+                                           @Param("allTime") LocalDate allTime, 
+                                           @Param("since") LocalDate since);
+    
+    boolean existsByUserIdAndMetric(Long userId, AnalyticsRollup.Metric metric);
+    
+    // Transaction-scoped advisory lock keyed by user id; no other advisory locks are used
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:userId)) l", nativeQuery = true)
+    int lockUser(@Param("userId") Long userId);
+    
+    // Atomic upsert so concurrent writes for the same user never lose an increment
+    @Modifying
+    @Query(value = "INSERT INTO analytics_rollups (user_id, metric, bucket, bucket_date, item_count, value_total) " +
+                   "VALUES (:userId, :metric, :bucket, :bucketDate, :count, :total) " +
+                   "ON CONFLICT (user_id, metric, bucket, bucket_date) DO UPDATE SET " +
+                   "item_count = analytics_rollups.item_count + EXCLUDED.item_count, " +
+                   "value_total = analytics_rollups.value_total + EXCLUDED.value_total",
+           nativeQuery = true)
+    void increment(@Param("userId") Long userId, 
+                   @Param("metric") String metric, 
+                   @Param("bucket") String bucket, 
+                   @Param("bucketDate") LocalDate bucketDate, 
+                   @Param("count") long count, 
+                   @Param("total") long total);
+    
+    @Modifying
+    @Query("DELETE FROM AnalyticsRollup r WHERE r.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
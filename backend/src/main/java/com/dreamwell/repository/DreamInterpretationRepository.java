@@ -2,12 +2,33 @@ package com.dreamwell.repository;
 
 import com.dreamwell.entity.Dream;
 import com.dreamwell.entity.DreamInterpretation;
+import com.dreamwell.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DreamInterpretationRepository extends JpaRepository<DreamInterpretation, Long> {
     Optional<DreamInterpretation> findByDream(Dream dream);
+    
+    // One IN query for a whole page of dreams instead of one lookup per dream
+    List<DreamInterpretation> findByDreamIn(Collection<Dream> dreams);
+    
+    @Query("SELECT i.symbols FROM DreamInterpretation i WHERE i.dream.user = :user AND i.symbols IS NOT NULL")
+    List<String> findSymbolsByUser(@Param("user") User user);
+    
+    @Query("SELECT i.symbols FROM DreamInterpretation i WHERE i.symbols IS NOT NULL")
+    List<String> findAllSymbols();
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DreamInterpretation i WHERE i.dream.id IN (SELECT d.id FROM Dream d WHERE d.user.id = :userId)")
+    int deleteByUserId(@Param("userId") Long userId);
 }
@@ -1,26 +1,81 @@
 package com.dreamwell.repository;
 
+import com.dreamwell.dto.DreamSummary;
 import com.dreamwell.entity.Dream;
 import com.dreamwell.entity.User;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DreamRepository extends JpaRepository<Dream, Long> {
     List<Dream> findByUserOrderByDreamDateDesc(User user);
+    
+    // Keyset pagination on (dreamDate, id), served by idx_dreams_user_date_id
+    List<Dream> findByUserOrderByDreamDateDescIdDesc(User user, Pageable pageable);
+    
+    @Query("SELECT d FROM Dream d WHERE d.user = :user AND " +
+           "(d.dreamDate < :dreamDate OR (d.dreamDate = :dreamDate AND d.id < :id)) " +
+           "ORDER BY d.dreamDate DESC, d.id DESC")
+    List<Dream> findPageAfter(@Param("user") User user, 
+                              @Param("dreamDate") LocalDateTime dreamDate, 
+                              @Param("id") Long id, 
+                              Pageable pageable);
+    // Summary rows for ?view=summary: constructor expressions, so nothing enters the persistence context
+    String SUMMARY_SELECT = "SELECT new com.dreamwell.dto.DreamSummary(" +
+           "d.id, d.user.id, d.title, SUBSTRING(d.dreamText, 1, " + DreamSummary.EXCERPT_LENGTH + "), d.tags, " +
+           "d.moodAtWake, d.sleepQuality, d.dreamDate, d.isPrivate, d.isFlagged, d.flagReason, d.createdAt, " +
+           "d.interpretationStatus, i.shortSummary, i.hasRiskFlag) " +
+           "FROM Dream d LEFT JOIN DreamInterpretation i ON i.dream = d ";
+    
+    @Query(SUMMARY_SELECT + "WHERE d.user.id = :userId ORDER BY d.dreamDate DESC, d.id DESC")
+    List<DreamSummary> findSummaries(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE d.user.id = :userId AND " +
+           "(d.dreamDate < :dreamDate OR (d.dreamDate = :dreamDate AND d.id < :id)) " +
+           "ORDER BY d.dreamDate DESC, d.id DESC")
+    List<DreamSummary> findSummariesAfter(@Param("userId") Long userId, 
+                                          @Param("dreamDate") LocalDateTime dreamDate, 
+                                          @Param("id") Long id, 
+                                          Pageable pageable);
+    
+    @Query(SUMMARY_SELECT + "WHERE d.isFlagged = true ORDER BY d.createdAt DESC")
+    List<DreamSummary> findFlaggedSummaries();
+    
     List<Dream> findByUserAndIsFlaggedOrderByCreatedAtDesc(User user, Boolean isFlagged);
     List<Dream> findByIsFlaggedOrderByCreatedAtDesc(Boolean isFlagged);
     
-    @Query("SELECT d FROM Dream d WHERE d.user = :user AND " +
-           "(LOWER(d.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(d.dreamText) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(d.tags) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    List<Dream> searchDreams(@Param("user") User user, @Param("keyword") String keyword);
+    // Ranked full-text search over the GIN-indexed search_vector column (see db/dream-search.sql).
+    // Returns [id, rank, snippet] rows, keyset-paginated on (rank, id); snippets are built only for the page.
+    @Query(value = "SELECT r.id, r.rank, " +
+                   "ts_headline('english', d.dream_text, r.q, " +
+                   "'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=25, MinWords=8') AS snippet " +
+                   "FROM (" +
+                   "  SELECT m.id, m.rank, m.q FROM (" +
+                   "    SELECT d.id AS id, CAST(ts_rank(d.search_vector, q) AS float8) AS rank, q " +
+                   "    FROM dreams d, to_tsquery('english', :query) q " +
+                   "    WHERE d.user_id = :userId AND d.search_vector @@ q" +
+                   "  ) m " +
+                   "  WHERE m.rank < :afterRank OR (m.rank = :afterRank AND m.id < :afterId) " +
+                   "  ORDER BY m.rank DESC, m.id DESC LIMIT :limit" +
+                   ") r JOIN dreams d ON d.id = r.id " +
+                   "ORDER BY r.rank DESC, r.id DESC",
+           nativeQuery = true)
+    List<Object[]> searchDreams(@Param("userId") Long userId, 
+                                @Param("query") String query, 
+                                @Param("afterRank") double afterRank, 
+                                @Param("afterId") long afterId, 
+                                @Param("limit") int limit);
     
     @Query("SELECT d FROM Dream d WHERE d.user = :user AND d.dreamDate BETWEEN :startDate AND :endDate")
     List<Dream> findByUserAndDateRange(@Param("user") User user, 
@@ -28,4 +83,28 @@ public interface DreamRepository extends JpaRepository<Dream, Long> {
                                        @Param("endDate") LocalDateTime endDate);
     
     Long countByUser(User user);
+    long countByIsFlagged(Boolean isFlagged);
+    
+    @Query("SELECT d.moodAtWake, d.sleepQuality, d.dreamDate FROM Dream d WHERE d.user.id = :userId")
+    List<Object[]> findRollupSourceByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT d.user.id FROM Dream d WHERE d.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+    
+    // Serializes writers of one dream's interpretation (background job, stream, reinterpret)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Dream d WHERE d.id = :id")
+    Optional<Dream> findByIdForUpdate(@Param("id") Long id);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Dream d SET d.interpretationStatus = :status, d.interpretationError = :error WHERE d.id = :id")
+    int updateInterpretationStatus(@Param("id") Long id, 
+                                   @Param("status") Dream.InterpretationStatus status, 
+                                   @Param("error") String error);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Dream d WHERE d.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 }
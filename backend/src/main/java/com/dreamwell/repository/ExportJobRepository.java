@@ -0,0 +1,65 @@
+package com.dreamwell.repository;
+
+import com.dreamwell.entity.ExportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+    Optional<ExportJob> findByIdAndUserId(Long id, Long userId);
+    Optional<ExportJob> findFirstByUserIdAndStatusInOrderByCreatedAtDesc(Long userId, Collection<ExportJob.Status> statuses);
+    List<ExportJob> findByUserId(Long userId);
+    List<ExportJob> findByExpiresAtBefore(LocalDateTime now);
+    List<ExportJob> findByStatusInAndCreatedAtBefore(Collection<ExportJob.Status> statuses, LocalDateTime createdBefore);
+    
+    // Status changes are single-row updates so the exporting thread never holds a managed entity.
+    // Each commits on its own, so polling clients see progress straight away.
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExportJob j SET j.status = :status, j.totalRecords = :total, j.startedAt = :now WHERE j.id = :id")
+    int markStarted(@Param("id") Long id, 
+                    @Param("status") ExportJob.Status status, 
+                    @Param("total") long total, 
+                    @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExportJob j SET j.recordsWritten = :written WHERE j.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("written") long written);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExportJob j SET j.status = :status, j.recordsWritten = :written, j.filePath = :filePath, " +
+           "j.fileSize = :fileSize, j.completedAt = :now, j.expiresAt = :expiresAt WHERE j.id = :id")
+    int markCompleted(@Param("id") Long id, 
+                      @Param("status") ExportJob.Status status, 
+                      @Param("written") long written, 
+                      @Param("filePath") String filePath, 
+                      @Param("fileSize") long fileSize, 
+                      @Param("now") LocalDateTime now, 
+                      @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE ExportJob j SET j.status = :status, j.error = :error, j.completedAt = :now, j.expiresAt = :expiresAt " +
+           "WHERE j.id = :id")
+    int markFailed(@Param("id") Long id, 
+                   @Param("status") ExportJob.Status status, 
+                   @Param("error") String error, 
+                   @Param("now") LocalDateTime now, 
+                   @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ExportJob j WHERE j.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
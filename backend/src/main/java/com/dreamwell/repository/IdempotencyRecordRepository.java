@@ -0,0 +1,57 @@
+package com.dreamwell.repository;
+
+import com.dreamwell.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+    
+    // Returns 1 if this request now owns the key, 0 if another request already claimed it
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (user_id, idempotency_key, fingerprint, status, created_at, expires_at) " +
+                   "VALUES (:userId, :key, :fingerprint, 'IN_PROGRESS', :now, :expiresAt) " +
+                   "ON CONFLICT (user_id, idempotency_key) DO NOTHING",
+           nativeQuery = true)
+    int claim(@Param("userId") Long userId, @Param("key") String key, @Param("fingerprint") String fingerprint,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, " +
+           "r.responseStatus = :responseStatus, r.responseBody = :responseBody " +
+           "WHERE r.userId = :userId AND r.idempotencyKey = :key")
+    void complete(@Param("userId") Long userId, @Param("key") String key, @Param("status") IdempotencyRecord.Status status,
+                  @Param("responseStatus") int responseStatus, @Param("responseBody") String responseBody);
+    
+    // Frees a key whose request failed, so the client's retry runs it again
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.userId = :userId AND r.idempotencyKey = :key " +
+           "AND r.status = :status")
+    void release(@Param("userId") Long userId, @Param("key") String key, @Param("status") IdempotencyRecord.Status status);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id")
+    void deleteRecord(@Param("id") Long id);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
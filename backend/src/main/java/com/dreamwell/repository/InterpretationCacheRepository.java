@@ -0,0 +1,43 @@
+package com.dreamwell.repository;
+
+import com.dreamwell.entity.InterpretationCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface InterpretationCacheRepository extends JpaRepository<InterpretationCacheEntry, Long> {
+    @Query("SELECT e FROM InterpretationCacheEntry e WHERE e.cacheKey = :cacheKey AND e.expiresAt > :now")
+    Optional<InterpretationCacheEntry> findByCacheKey(@Param("cacheKey") String cacheKey, @Param("now") LocalDateTime now);
+    
+    // A fresh result replaces an expired row that the purge has not removed yet
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO interpretation_cache (cache_key, model, payload, created_at, expires_at) " +
+                   "VALUES (:cacheKey, :model, :payload, :now, :expiresAt) " +
+                   "ON CONFLICT (cache_key) DO UPDATE SET model = EXCLUDED.model, payload = EXCLUDED.payload, " +
+                   "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+                   "WHERE interpretation_cache.expires_at <= EXCLUDED.created_at",
+           nativeQuery = true)
+    void upsert(@Param("cacheKey") String cacheKey, 
+                @Param("model") String model, 
+                @Param("payload") String payload, 
+                @Param("now") LocalDateTime now, 
+                @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM InterpretationCacheEntry e WHERE e.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM InterpretationCacheEntry e")
+    int purge();
+}
@@ -0,0 +1,29 @@
+package com.dreamwell.repository;
+
+import com.dreamwell.entity.InterpretationLimit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface InterpretationLimitRepository extends JpaRepository<InterpretationLimit, Long> {
+    
+    // Takes a token and a unit of today's quota in one statement. Returns 1 if granted, 0 if
+    // either limit refused it (the row is then left untouched).
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO interpretation_limits AS l (user_id, tat_ms, quota_day, quota_used) " +
+                   "VALUES (:userId, :nowMs + :intervalMs, :today, 1) " +
+                   "ON CONFLICT (user_id) DO UPDATE SET " +
+                   "tat_ms = GREATEST(l.tat_ms, :nowMs) + :intervalMs, " +
+                   "quota_day = :today, " +
+                   "quota_used = CASE WHEN l.quota_day = :today THEN l.quota_used + 1 ELSE 1 END " +
+                   "WHERE GREATEST(l.tat_ms, :nowMs) - :nowMs <= :toleranceMs " +
+                   "AND (l.quota_day <> :today OR l.quota_used < :dailyQuota)",
+           nativeQuery = true)
+    int tryAcquire(@Param("userId") Long userId, @Param("nowMs") long nowMs, @Param("intervalMs") long intervalMs,
+                   @Param("toleranceMs") long toleranceMs, @Param("today") long today, @Param("dailyQuota") int dailyQuota);
+}
@@ -1,11 +1,15 @@
 package com.dreamwell.repository;
 
+import com.dreamwell.dto.MoodEntrySummary;
 import com.dreamwell.entity.MoodEntry;
 import com.dreamwell.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -14,10 +18,43 @@ import java.util.Optional;
 @Repository
 public interface MoodEntryRepository extends JpaRepository<MoodEntry, Long> {
     List<MoodEntry> findByUserOrderByEntryDateDesc(User user);
+    
+    // Keyset pagination on (entryDate, id), served by idx_mood_entries_user_date_id
+    List<MoodEntry> findByUserOrderByEntryDateDescIdDesc(User user, Pageable pageable);
+    
+    @Query("SELECT m FROM MoodEntry m WHERE m.user = :user AND " +
+           "(m.entryDate < :entryDate OR (m.entryDate = :entryDate AND m.id < :id)) " +
+           "ORDER BY m.entryDate DESC, m.id DESC")
+    List<MoodEntry> findPageAfter(@Param("user") User user, 
+                                  @Param("entryDate") LocalDate entryDate, 
+                                  @Param("id") Long id, 
+                                  Pageable pageable);
+    // Summary rows for ?view=summary, built without loading MoodEntry entities
+    @Query("SELECT new com.dreamwell.dto.MoodEntrySummary(m.id, m.entryDate, m.mood, m.createdAt) " +
+           "FROM MoodEntry m WHERE m.user.id = :userId ORDER BY m.entryDate DESC, m.id DESC")
+    List<MoodEntrySummary> findSummaries(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT new com.dreamwell.dto.MoodEntrySummary(m.id, m.entryDate, m.mood, m.createdAt) " +
+           "FROM MoodEntry m WHERE m.user.id = :userId AND " +
+           "(m.entryDate < :entryDate OR (m.entryDate = :entryDate AND m.id < :id)) " +
+           "ORDER BY m.entryDate DESC, m.id DESC")
+    List<MoodEntrySummary> findSummariesAfter(@Param("userId") Long userId, 
+                                              @Param("entryDate") LocalDate entryDate, 
+                                              @Param("id") Long id, 
+                                              Pageable pageable);
+    
     Optional<MoodEntry> findByUserAndEntryDate(User user, LocalDate entryDate);
     
     @Query("SELECT m FROM MoodEntry m WHERE m.user = :user AND m.entryDate BETWEEN :startDate AND :endDate ORDER BY m.entryDate")
     List<MoodEntry> findByUserAndDateRange(@Param("user") User user, 
                                            @Param("startDate") LocalDate startDate, 
                                            @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT m.mood, m.entryDate FROM MoodEntry m WHERE m.user.id = :userId")
+    List<Object[]> findRollupSourceByUserId(@Param("userId") Long userId);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MoodEntry m WHERE m.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 }
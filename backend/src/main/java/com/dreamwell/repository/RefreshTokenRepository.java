@@ -3,12 +3,54 @@ package com.dreamwell.repository;
 import com.dreamwell.entity.RefreshToken;
 import com.dreamwell.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
-    void deleteByUser(User user);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+    
+    // Inserts the new session and drops the user's sessions beyond the newest `keep` older ones,
+    // in one statement. The DELETE runs on the pre-insert snapshot, so the new row is never a candidate.
+    @Modifying
+    @Transactional
+    @Query(value = "WITH inserted AS (" +
+                   "INSERT INTO refresh_tokens (user_id, token_hash, device_name, expiry_date, created_at) " +
+                   "VALUES (:userId, :tokenHash, CAST(:deviceName AS varchar), :expiryDate, :now) RETURNING id) " +
+                   "DELETE FROM refresh_tokens WHERE id IN (SELECT id FROM refresh_tokens WHERE user_id = :userId " +
+                   "ORDER BY created_at DESC, id DESC OFFSET :keep)",
+           nativeQuery = true)
+    int insertAndTrim(@Param("userId") Long userId, @Param("tokenHash") String tokenHash,
+                      @Param("deviceName") String deviceName, @Param("expiryDate") LocalDateTime expiryDate,
+                      @Param("now") LocalDateTime now, @Param("keep") int keep);
+    
+    // Returns 0 if another request already rotated or revoked this token
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.id = :id")
+    int deleteTokenById(@Param("id") Long id);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshToken t WHERE t.user = :user")
+    void deleteAllForUser(@Param("user") User user);
+    
+    // One bounded batch per call, so the purge never holds a long lock or a huge transaction
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN " +
+                   "(SELECT id FROM refresh_tokens WHERE expiry_date < :now LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
@@ -0,0 +1,31 @@
+package com.dreamwell.repository;
+
+import com.dreamwell.entity.RevokedAccount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedAccountRepository extends JpaRepository<RevokedAccount, Long> {
+    
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO revoked_accounts (user_id, revoked_at, expires_at) VALUES (:userId, :now, :expiresAt) " +
+                   "ON CONFLICT (user_id) DO UPDATE SET expires_at = EXCLUDED.expires_at",
+           nativeQuery = true)
+    void revoke(@Param("userId") Long userId, @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Query("SELECT r.userId, r.expiresAt FROM RevokedAccount r WHERE r.expiresAt > :now")
+    List<Object[]> findActive(@Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedAccount r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,9 +1,14 @@
 package com.dreamwell.repository;
 
+import com.dreamwell.dto.SupportTicketSummary;
 import com.dreamwell.entity.SupportTicket;
 import com.dreamwell.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -12,4 +17,26 @@ public interface SupportTicketRepository extends JpaRepository<SupportTicket, Lo
     List<SupportTicket> findByUserOrderByCreatedAtDesc(User user);
     List<SupportTicket> findByStatusOrderByCreatedAtDesc(SupportTicket.Status status);
     List<SupportTicket> findAllByOrderByCreatedAtDesc();
+    long countByStatus(SupportTicket.Status status);
+    
+    // Admin list rows without message bodies or user associations
+    String SUMMARY_SELECT = "SELECT new com.dreamwell.dto.SupportTicketSummary(" +
+           "t.id, t.name, t.email, t.subject, t.status, t.createdAt, t.repliedAt) FROM SupportTicket t ";
+    
+    @Query(SUMMARY_SELECT + "ORDER BY t.createdAt DESC")
+    List<SupportTicketSummary> findSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE t.status = :status ORDER BY t.createdAt DESC")
+    List<SupportTicketSummary> findSummariesByStatus(@Param("status") SupportTicket.Status status);
+    
+    // Tickets keep their own name and email, so they outlive the account that filed them
+    @Modifying
+    @Transactional
+    @Query("UPDATE SupportTicket t SET t.user = NULL WHERE t.user.id = :userId")
+    int detachUser(@Param("userId") Long userId);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE SupportTicket t SET t.repliedBy = NULL WHERE t.repliedBy.id = :userId")
+    int detachReplier(@Param("userId") Long userId);
 }
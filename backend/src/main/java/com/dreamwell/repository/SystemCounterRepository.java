@@ -0,0 +1,40 @@
+package com.dreamwell.repository;
+
+import com.dreamwell.entity.SystemCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SystemCounterRepository extends JpaRepository<SystemCounter, Long> {
+    List<SystemCounter> findByCategory(SystemCounter.Category category);
+    List<SystemCounter> findTop10ByCategoryAndValueGreaterThanOrderByValueDesc(SystemCounter.Category category, Long value);
+    
+    @Modifying
+    @Query(value = "INSERT INTO system_counters (category, name, counter_value) VALUES (:category, :name, :delta) " +
+                   "ON CONFLICT (category, name) DO UPDATE SET counter_value = system_counters.counter_value + EXCLUDED.counter_value",
+           nativeQuery = true)
+    void increment(@Param("category") String category, @Param("name") String name, @Param("delta") long delta);
+    
+    @Modifying
+    @Query(value = "INSERT INTO system_counters (category, name, counter_value) " +
+                   "VALUES (:category, :first, :delta), (:category, :second, :delta) " +
+                   "ON CONFLICT (category, name) DO UPDATE SET counter_value = system_counters.counter_value + EXCLUDED.counter_value",
+           nativeQuery = true)
+    void incrementPair(@Param("category") String category, @Param("first") String first,
+                       @Param("second") String second, @Param("delta") long delta);
+    
+    @Modifying
+    @Query(value = "INSERT INTO system_counters (category, name, counter_value) VALUES (:category, :name, :value) " +
+                   "ON CONFLICT (category, name) DO UPDATE SET counter_value = EXCLUDED.counter_value",
+           nativeQuery = true)
+    void set(@Param("category") String category, @Param("name") String name, @Param("value") long value);
+    
+    @Modifying
+    @Query("DELETE FROM SystemCounter c WHERE c.category = :category")
+    void deleteByCategory(@Param("category") SystemCounter.Category category);
+}
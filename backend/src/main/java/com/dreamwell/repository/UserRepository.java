@@ -2,14 +2,67 @@ package com.dreamwell.repository;
 
 import com.dreamwell.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
+    long countByIsActive(Boolean isActive);
+    
+    @Query("SELECT u.id, u.statusVersion FROM User u WHERE u.statusVersion > 0")
+    List<Object[]> findStatusVersions();
     Optional<User> findByEmailVerificationToken(String token);
     Optional<User> findByPasswordResetToken(String token);
+    
+    @Query("SELECT u.id FROM User u")
+    List<Long> findAllIds();
+    
+    @Modifying
+    @Query(value = "UPDATE users SET data_version = COALESCE(data_version, 0) + 1 WHERE id = :userId", nativeQuery = true)
+    int incrementDataVersion(@Param("userId") Long userId);
+    
+    @Query("SELECT COALESCE(u.dataVersion, 0L) FROM User u WHERE u.id = :userId")
+    Optional<Long> findDataVersion(@Param("userId") Long userId);
+    
+    @Query("SELECT u.id, COALESCE(u.dataVersion, 0L) FROM User u WHERE u.id IN :userIds")
+    List<Object[]> findDataVersions(@Param("userIds") Collection<Long> userIds);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.email = :email AND u.password = :oldHash")
+    int updatePasswordHash(@Param("email") String email, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+    
+    // Compare-and-set on the hash verified before hashing the new password outside any transaction
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int replacePassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+    
+    // Sets the new hash and consumes the token in one statement, so a token is only ever used once
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newHash, u.passwordResetToken = null, u.passwordResetTokenExpiry = null " +
+           "WHERE u.passwordResetToken = :token AND u.passwordResetTokenExpiry > :now")
+    int resetPassword(@Param("token") String token, @Param("newHash") String newHash, @Param("now") LocalDateTime now);
+    
+    // Dreams, flagged dreams, mood entries and the comma-joined symbols of every interpretation,
+    // for taking a deleted account's rows out of the system counters
+    @Query(value = "SELECT " +
+                   "(SELECT COUNT(*) FROM dreams d WHERE d.user_id = :userId), " +
+                   "(SELECT COUNT(*) FROM dreams d WHERE d.user_id = :userId AND d.is_flagged), " +
+                   "(SELECT COUNT(*) FROM mood_entries m WHERE m.user_id = :userId), " +
+                   "(SELECT string_agg(i.symbols, ',') FROM dream_interpretations i JOIN dreams d ON d.id = i.dream_id " +
+                   " WHERE d.user_id = :userId AND i.symbols IS NOT NULL)",
+           nativeQuery = true)
+    List<Object[]> findAccountTotals(@Param("userId") Long userId);
 }
@@ -0,0 +1,98 @@
+package com.dreamwell.security;
+
+import com.dreamwell.repository.RevokedAccountRepository;
+import com.dreamwell.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revocation check for access tokens. Only users whose status version moved off 0 are
+// tracked, so the map stays small and the per-request check is a single hash lookup.
+// Deleted accounts have no users row left to carry a version, so they are recorded in
+// revoked_accounts until their last access token expires; every instance loads that table.
+@Component
+public class AccountStatusRegistry {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private RevokedAccountRepository revokedAccountRepository;
+    
+    @Value("${jwt.access-token-expiration}")
+    private long accessTokenExpirationMs;
+    
+    private final Map<Long, Integer> statusVersions = new ConcurrentHashMap<>();
+    
+    // Deleted user id to the epoch millis after which none of its tokens can still be valid
+    private final Map<Long, Long> deletedUntil = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+    
+    // Picks up changes made by other instances; versions only grow, so a stale read never undoes a revocation
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-ms:30000}")
+    public void refresh() {
+        try {
+            for (Object[] row : userRepository.findStatusVersions()) {
+                statusVersions.merge((Long) row[0], (Integer) row[1], Math::max);
+            }
+            
+            LocalDateTime now = LocalDateTime.now();
+            for (Object[] row : revokedAccountRepository.findActive(now)) {
+                long until = ((LocalDateTime) row[1]).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                deletedUntil.merge((Long) row[0], until, Math::max);
+            }
+            long nowMs = System.currentTimeMillis();
+            deletedUntil.values().removeIf(until -> until <= nowMs);
+            revokedAccountRepository.deleteExpired(now);
+        } catch (Exception e) {
+            System.err.println("Account status refresh failed: " + e.getMessage());
+        }
+    }
+    
+    public boolean isCurrent(Long userId, int statusVersion) {
+        return statusVersions.getOrDefault(userId, 0) == statusVersion && !deletedUntil.containsKey(userId);
+    }
+    
+    public void statusChanged(Long userId, int statusVersion) {
+        afterCommit(() -> statusVersions.merge(userId, statusVersion, Math::max));
+    }
+    
+    // Must run inside the deleting transaction so the revocation commits with the delete
+    public void accountDeleted(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(accessTokenExpirationMs));
+        revokedAccountRepository.revoke(userId, now, expiresAt);
+        long until = System.currentTimeMillis() + accessTokenExpirationMs;
+        afterCommit(() -> {
+            statusVersions.remove(userId);
+            deletedUntil.merge(userId, until, Math::max);
+        });
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
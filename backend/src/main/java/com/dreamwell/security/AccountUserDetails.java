@@ -0,0 +1,30 @@
+package com.dreamwell.security;
+
+import com.dreamwell.entity.User;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+// UserDetails that keeps the loaded User, so login can issue tokens from the authenticated
+// principal instead of reading the user a second time
+public class AccountUserDetails extends org.springframework.security.core.userdetails.User {
+    
+    private final User account;
+    
+    public AccountUserDetails(User account, String passwordHash) {
+        super(
+            account.getEmail(),
+            passwordHash,
+            account.getIsActive(),
+            true,
+            true,
+            true,
+            List.of(new SimpleGrantedAuthority("ROLE_" + account.getRole().name()))
+        );
+        this.account = account;
+    }
+    
+    public User getAccount() {
+        return account;
+    }
+}
@@ -0,0 +1,177 @@
+package com.dreamwell.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sliding-window attempt counters for unauthenticated endpoints, keyed by client IP and by
+// email. Repeated failed logins add an exponential backoff on top of the window limit.
+// State lives in an LRU map capped at max-entries; idle keys also expire on a sweep.
+@Component
+public class AuthAttemptLimiter {
+    
+    @Value("${auth.throttle.window-ms:60000}")
+    private long windowMs;
+    
+    @Value("${auth.throttle.ip-limit:20}")
+    private int ipLimit;
+    
+    @Value("${auth.throttle.email-limit:5}")
+    private int emailLimit;
+    
+    // Consecutive failed logins allowed before backoff starts
+    @Value("${auth.throttle.failure-threshold:3}")
+    private int failureThreshold;
+    
+    @Value("${auth.throttle.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+    
+    @Value("${auth.throttle.backoff-max-ms:900000}")
+    private long backoffMaxMs;
+    
+    @Value("${auth.throttle.max-entries:100000}")
+    private int maxEntries;
+    
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    
+    // Access-ordered LinkedHashMap gives LRU order; guarded by its own monitor
+    private final LinkedHashMap<String, Attempts> attempts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Attempts> eldest) {
+            if (size() > maxEntries) {
+                evicted.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+    
+    public static String ipKey(String ip) {
+        return "ip:" + ip;
+    }
+    
+    public static String emailKey(String email) {
+        return "email:" + email;
+    }
+    
+    // Counts an attempt against every key, or none of them if any key is over its limit.
+    // Returns 0 when allowed, otherwise how many milliseconds the client should wait.
+    public long tryAcquire(List<String> keys) {
+        long now = System.currentTimeMillis();
+        synchronized (attempts) {
+            long wait = 0;
+            for (String key : keys) {
+                Attempts entry = attempts.get(key);
+                if (entry != null) {
+                    wait = Math.max(wait, entry.waitMs(now, limitFor(key)));
+                }
+            }
+            if (wait > 0) {
+                rejected.incrementAndGet();
+                return wait;
+            }
+            for (String key : keys) {
+                attempts.computeIfAbsent(key, k -> new Attempts()).record(now);
+            }
+            return 0;
+        }
+    }
+    
+    public void recordFailure(List<String> keys) {
+        long now = System.currentTimeMillis();
+        synchronized (attempts) {
+            for (String key : keys) {
+                Attempts entry = attempts.computeIfAbsent(key, k -> new Attempts());
+                entry.failures++;
+                int excess = entry.failures - failureThreshold;
+                if (excess >= 0) {
+                    long backoff = backoffBaseMs << Math.min(excess, 30);
+                    entry.blockedUntil = now + Math.min(backoff, backoffMaxMs);
+                }
+            }
+        }
+    }
+    
+    public void recordSuccess(List<String> keys) {
+        synchronized (attempts) {
+            for (String key : keys) {
+                Attempts entry = attempts.get(key);
+                if (entry != null) {
+                    entry.failures = 0;
+                    entry.blockedUntil = 0;
+                }
+            }
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (attempts) {
+            stats.put("trackedKeys", attempts.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("rejected", rejected.get());
+        stats.put("evicted", evicted.get());
+        return stats;
+    }
+    
+    @Scheduled(fixedDelayString = "${auth.throttle.sweep-ms:60000}")
+    public void expireIdle() {
+        long now = System.currentTimeMillis();
+        synchronized (attempts) {
+            attempts.values().removeIf(entry -> entry.isIdle(now));
+        }
+    }
+    
+    private int limitFor(String key) {
+        return key.startsWith("email:") ? emailLimit : ipLimit;
+    }
+    
+    // Approximate sliding window: the previous fixed window's count, weighted by how much of
+    // it still overlaps the sliding window, plus the current window's count
+    private final class Attempts {
+        private long window;
+        private int current;
+        private int previous;
+        private int failures;
+        private long blockedUntil;
+        
+        private void roll(long now) {
+            long nowWindow = now / windowMs;
+            if (nowWindow != window) {
+                previous = nowWindow == window + 1 ? current : 0;
+                current = 0;
+                window = nowWindow;
+            }
+        }
+        
+        private long waitMs(long now, int limit) {
+            if (blockedUntil > now) {
+                return blockedUntil - now;
+            }
+            roll(now);
+            long elapsed = now % windowMs;
+            double estimate = previous * (1 - (double) elapsed / windowMs) + current;
+            return estimate >= limit ? windowMs - elapsed : 0;
+        }
+        
+        private void record(long now) {
+            roll(now);
+            current++;
+        }
+        
+        // Nothing left in the window, and any failure streak has cooled off for a full backoff period
+        private boolean isIdle(long now) {
+            boolean windowEmpty = now / windowMs > window + 1;
+            boolean streakCold = failures < failureThreshold || blockedUntil + backoffMaxMs <= now;
+            return windowEmpty && blockedUntil <= now && streakCold;
+        }
+    }
+}
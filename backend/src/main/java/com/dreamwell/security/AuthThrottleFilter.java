@@ -0,0 +1,119 @@
+package com.dreamwell.security;
+
+import com.dreamwell.dto.ApiResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Throttles the unauthenticated write endpoints by client IP and by the email in the body.
+// Runs ahead of the JWT filter and the controllers, so a rejected request never reaches
+// the BCrypt check in login or the hashing in signup.
+@Component
+public class AuthThrottleFilter extends OncePerRequestFilter {
+    
+    private static final String LOGIN_PATH = "/auth/login";
+    private static final Set<String> THROTTLED_PATHS = Set.of(
+        LOGIN_PATH, "/auth/signup", "/auth/forgot-password", "/support/tickets"
+    );
+    
+    @Autowired
+    private AuthAttemptLimiter limiter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Credential payloads are tiny; anything larger is refused rather than buffered
+    @Value("${auth.throttle.max-body-bytes:16384}")
+    private int maxBodyBytes;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !THROTTLED_PATHS.contains(request.getServletPath());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        
+        byte[] body = readBody(request);
+        if (body == null) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large", 0);
+            return;
+        }
+        
+        // The remote address, not X-Forwarded-For: behind a proxy, enable server.forward-headers-strategy instead
+        List<String> keys = new ArrayList<>(2);
+        keys.add(AuthAttemptLimiter.ipKey(request.getRemoteAddr()));
+        String email = extractEmail(body);
+        if (email != null) {
+            keys.add(AuthAttemptLimiter.emailKey(email));
+        }
+        
+        long waitMs = limiter.tryAcquire(keys);
+        if (waitMs > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many attempts, please try again later", waitMs);
+            return;
+        }
+        
+        chain.doFilter(new CachedBodyHttpServletRequest(request, body), response);
+        
+        if (LOGIN_PATH.equals(request.getServletPath())) {
+            if (response.getStatus() == HttpStatus.UNAUTHORIZED.value()) {
+                limiter.recordFailure(keys);
+            } else if (response.getStatus() < 300) {
+                limiter.recordSuccess(keys);
+            }
+        }
+    }
+    
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            return null;
+        }
+        try (InputStream input = request.getInputStream()) {
+            byte[] body = input.readNBytes(maxBodyBytes + 1);
+            return body.length > maxBodyBytes ? null : body;
+        }
+    }
+    
+    private String extractEmail(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).path("email");
+            if (email.isTextual() && !email.asText().isBlank()) {
+                return email.asText().trim().toLowerCase(Locale.ROOT);
+            }
+        } catch (IOException e) {
+            // Malformed JSON is throttled by IP alone and rejected by the controller
+        }
+        return null;
+    }
+    
+    private void reject(HttpServletResponse response, HttpStatus status, String message, long waitMs) throws IOException {
+        response.setStatus(status.value());
+        if (waitMs > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (waitMs + 999) / 1000)));
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(message));
+    }
+}
@@ -0,0 +1,25 @@
+package com.dreamwell.security;
+
+import com.dreamwell.entity.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+
+// Principal built from access token claims alone; getName() stays the email so
+// Authentication.getName() keeps its old meaning
+public record AuthenticatedUser(Long id, String email, User.Role role, int statusVersion) implements Principal {
+    
+    @Override
+    public String getName() {
+        return email;
+    }
+    
+    public static AuthenticatedUser current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        throw new RuntimeException("User not found");
+    }
+}
@@ -1,13 +1,18 @@
 package com.dreamwell.service;
 
+import com.dreamwell.dto.DreamSummary;
+import com.dreamwell.dto.SupportTicketSummary;
 import com.dreamwell.dto.UserDTO;
 import com.dreamwell.entity.Dream;
 import com.dreamwell.entity.SupportTicket;
 import com.dreamwell.entity.SystemSettings;
 import com.dreamwell.entity.User;
 import com.dreamwell.repository.*;
+import com.dreamwell.security.AccountStatusRegistry;
+import com.dreamwell.security.AuthAttemptLimiter;
+import com.dreamwell.security.AuthenticatedUser;
+import com.dreamwell.security.BoundedPasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,7 +42,37 @@ public class AdminService {
     private SystemSettingsRepository systemSettingsRepository;
     
     @Autowired
-    private DreamInterpretationRepository interpretationRepository;
+    private InterpretationCacheService interpretationCacheService;
+    
+    @Autowired
+    private AnalyticsRollupJob analyticsRollupJob;
+    
+    @Autowired
+    private SystemCounterService counterService;
+    
+    @Autowired
+    private SystemCounterJob systemCounterJob;
+    
+    @Autowired
+    private AccountStatusRegistry accountStatusRegistry;
+    
+    @Autowired
+    private GroqPoolMetrics groqPoolMetrics;
+    
+    @Autowired
+    private GroqResilience groqResilience;
+    
+    @Autowired
+    private GroqSingleFlight groqSingleFlight;
+    
+    @Autowired
+    private AuthAttemptLimiter authAttemptLimiter;
+    
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private DataVersionRegistry dataVersions;
     
     public List<UserDTO> getAllUsers() {
         return userRepository.findAll().stream()
@@ -57,7 +92,12 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         user.setIsActive(!user.getIsActive());
+        // Invalidates access tokens already issued to this account
+        user.setStatusVersion((user.getStatusVersion() != null ? user.getStatusVersion() : 0) + 1);
         user = userRepository.save(user);
+        accountStatusRegistry.statusChanged(user.getId(), user.getStatusVersion());
+        counterService.increment(SystemCounterService.ACTIVE_USERS, user.getIsActive() ? 1 : -1);
+        dataVersions.bump(user.getId());
         
         return UserDTO.fromEntity(user);
     }
@@ -77,62 +117,43 @@ public class AdminService {
         return dreamRepository.findByIsFlaggedOrderByCreatedAtDesc(true);
     }
     
+    public List<DreamSummary> getFlaggedDreamSummaries() {
+        return dreamRepository.findFlaggedSummaries();
+    }
+    
+    // Served entirely from system_counters: two small queries, independent of table sizes
     public Map<String, Object> getSystemAnalytics() {
+        Map<String, Long> totals = counterService.getTotals();
         Map<String, Object> analytics = new HashMap<>();
         
-        // Total users
-        analytics.put("totalUsers", userRepository.count());
+        analytics.put("totalUsers", totals.getOrDefault(SystemCounterService.USERS, 0L));
+        analytics.put("activeUsers", totals.getOrDefault(SystemCounterService.ACTIVE_USERS, 0L));
+        analytics.put("totalDreams", totals.getOrDefault(SystemCounterService.DREAMS, 0L));
+        analytics.put("flaggedDreams", totals.getOrDefault(SystemCounterService.FLAGGED_DREAMS, 0L));
+        analytics.put("totalMoodEntries", totals.getOrDefault(SystemCounterService.MOOD_ENTRIES, 0L));
         
-        // Active users (logged in last 30 days - simplified as all users for now)
-        analytics.put("activeUsers", userRepository.findAll().stream()
-                .filter(User::getIsActive)
-                .count());
-        
-        // Total dreams
-        analytics.put("totalDreams", dreamRepository.count());
-        
-        // Flagged dreams
-        analytics.put("flaggedDreams", dreamRepository.findByIsFlaggedOrderByCreatedAtDesc(true).size());
-        
-        // Total mood entries
-        analytics.put("totalMoodEntries", moodEntryRepository.count());
-        
-        // Open support tickets
-        analytics.put("openTickets", supportTicketRepository.findByStatusOrderByCreatedAtDesc(SupportTicket.Status.OPEN).size());
+        Map<String, Long> ticketsByStatus = new HashMap<>();
+        for (SupportTicket.Status status : SupportTicket.Status.values()) {
+            ticketsByStatus.put(status.name(), totals.getOrDefault(SystemCounterService.ticketCounter(status), 0L));
+        }
+        analytics.put("openTickets", ticketsByStatus.get(SupportTicket.Status.OPEN.name()));
+        analytics.put("ticketsByStatus", ticketsByStatus);
         
         // Top dream symbols across all users
-        analytics.put("topSymbols", getGlobalTopSymbols());
+        analytics.put("topSymbols", counterService.getTopSymbols().stream()
+                .map(counter -> {
+                    Map<String, Object> symbolData = new HashMap<>();
+                    symbolData.put("symbol", counter.getName());
+                    symbolData.put("count", counter.getValue());
+                    return symbolData;
+                })
+                .collect(Collectors.toList()));
         
         return analytics;
     }
     
-    private List<Map<String, Object>> getGlobalTopSymbols() {
-        List<Dream> allDreams = dreamRepository.findAll();
-        Map<String, Integer> symbolCount = new HashMap<>();
-        
-        for (Dream dream : allDreams) {
-            interpretationRepository.findByDream(dream).ifPresent(interpretation -> {
-                String symbols = interpretation.getSymbols();
-                if (symbols != null && !symbols.isEmpty()) {
-                    String[] symbolArray = symbols.split(",");
-                    for (String symbol : symbolArray) {
-                        String trimmedSymbol = symbol.trim();
-                        symbolCount.put(trimmedSymbol, symbolCount.getOrDefault(trimmedSymbol, 0) + 1);
-                    }
-                }
-            });
-        }
-        
-        return symbolCount.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .limit(10)
-                .map(entry -> {
-                    Map<String, Object> symbolData = new HashMap<>();
-                    symbolData.put("symbol", entry.getKey());
-                    symbolData.put("count", entry.getValue());
-                    return symbolData;
-                })
-                .collect(Collectors.toList());
+    public void reconcileSystemCounters() {
+        systemCounterJob.reconcileAsync();
     }
     
     public List<SupportTicket> getAllSupportTickets() {
@@ -143,6 +164,14 @@ public class AdminService {
         return supportTicketRepository.findByStatusOrderByCreatedAtDesc(status);
     }
     
+    public List<SupportTicketSummary> getSupportTicketSummaries() {
+        return supportTicketRepository.findSummaries();
+    }
+    
+    public List<SupportTicketSummary> getSupportTicketSummariesByStatus(SupportTicket.Status status) {
+        return supportTicketRepository.findSummariesByStatus(status);
+    }
+    
     @Transactional
     public SupportTicket replyToTicket(Long ticketId, String reply) {
         SupportTicket ticket = supportTicketRepository.findById(ticketId)
@@ -150,6 +179,9 @@ public class AdminService {
         
         User admin = getCurrentUser();
         
+        counterService.recordTicketStatus(ticket.getStatus(), -1);
+        counterService.recordTicketStatus(SupportTicket.Status.RESOLVED, 1);
+        
         ticket.setAdminReply(reply);
         ticket.setRepliedBy(admin);
         ticket.setRepliedAt(LocalDateTime.now());
@@ -163,6 +195,9 @@ public class AdminService {
         SupportTicket ticket = supportTicketRepository.findById(ticketId)
                 .orElseThrow(() -> new RuntimeException("Ticket not found"));
         
+        counterService.recordTicketStatus(ticket.getStatus(), -1);
+        counterService.recordTicketStatus(status, 1);
+        
         ticket.setStatus(status);
         return supportTicketRepository.save(ticket);
     }
@@ -183,9 +218,40 @@ public class AdminService {
         return systemSettingsRepository.save(setting);
     }
     
+    public Map<String, Object> getInterpretationCacheStats() {
+        return interpretationCacheService.getStats();
+    }
+    
+    public int purgeInterpretationCache() {
+        return interpretationCacheService.purge();
+    }
+    
+    public Map<String, Object> getGroqPoolStats() {
+        return groqPoolMetrics.getStats();
+    }
+    
+    public Map<String, Object> getGroqResilienceStats() {
+        return groqResilience.getStats();
+    }
+    
+    public Map<String, Object> getGroqCoalescingStats() {
+        return groqSingleFlight.getStats();
+    }
+    
+    public Map<String, Object> getAuthThrottleStats() {
+        return authAttemptLimiter.getStats();
+    }
+    
+    public Map<String, Object> getPasswordHashingStats() {
+        return passwordEncoder.getStats();
+    }
+    
+    public void rebuildAnalyticsRollups() {
+        analyticsRollupJob.rebuildAllUsersAsync();
+    }
+    
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
+        return userRepository.findById(AuthenticatedUser.current().id())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
@@ -0,0 +1,45 @@
+package com.dreamwell.service;
+
+import com.dreamwell.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class AnalyticsRollupJob {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private AnalyticsRollupService rollupService;
+    
+    // Nightly drift repair; also backfills users created before rollups existed
+    @Scheduled(cron = "${analytics.rollup.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuildAllUsers();
+    }
+    
+    @Async
+    public void rebuildAllUsersAsync() {
+        rebuildAllUsers();
+    }
+    
+    private void rebuildAllUsers() {
+        List<Long> userIds = userRepository.findAllIds();
+        int failed = 0;
+        for (Long userId : userIds) {
+            try {
+                // One short transaction per user
+                rollupService.rebuildForUser(userId);
+            } catch (Exception e) {
+                failed++;
+                System.err.println("Analytics rollup rebuild failed for user " + userId + ": " + e.getMessage());
+            }
+        }
+        System.out.println("Analytics rollups rebuilt for " + (userIds.size() - failed) + " of " + userIds.size() + " users");
+    }
+}
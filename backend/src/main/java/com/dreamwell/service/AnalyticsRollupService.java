@@ -0,0 +1,174 @@
+package com.dreamwell.service;
+
+import com.dreamwell.entity.AnalyticsRollup;
+import com.dreamwell.entity.AnalyticsRollup.Metric;
+import com.dreamwell.entity.Dream;
+import com.dreamwell.entity.MoodEntry;
+import com.dreamwell.repository.AnalyticsRollupRepository;
+import com.dreamwell.repository.DreamInterpretationRepository;
+import com.dreamwell.repository.DreamRepository;
+import com.dreamwell.repository.MoodEntryRepository;
+import com.dreamwell.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-user analytics counters, kept in step with dream, interpretation and mood writes
+// inside the caller's transaction. rebuildForUser recomputes them from the source tables.
+// Every path takes a per-user advisory lock first, so a rebuild never interleaves with another
+// rebuild or with a write's increments; writes take it before bumping the user's data version,
+// which keeps the lock order the same everywhere.
+@Service
+public class AnalyticsRollupService {
+    
+    private static final int MAX_BUCKET_LENGTH = 255;
+    
+    @Autowired
+    private AnalyticsRollupRepository rollupRepository;
+    
+    @Autowired
+    private DreamRepository dreamRepository;
+    
+    @Autowired
+    private DreamInterpretationRepository interpretationRepository;
+    
+    @Autowired
+    private MoodEntryRepository moodEntryRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private DataVersionRegistry dataVersions;
+    
+    // sign is +1 when a dream is added and -1 when it is removed (an edit is both)
+    @Transactional
+    public void recordDream(Long userId, Dream.Mood mood, Integer sleepQuality, LocalDateTime dreamDate, int sign) {
+        lock(userId);
+        long sleep = (long) sleepQuality * sign;
+        rollupRepository.increment(userId, Metric.DREAMS.name(), "", AnalyticsRollup.ALL_TIME, sign, 0);
+        rollupRepository.increment(userId, Metric.DREAM_MOOD.name(), mood.name(), AnalyticsRollup.ALL_TIME, sign, sleep);
+        rollupRepository.increment(userId, Metric.DREAM_DAY.name(), "", dreamDate.toLocalDate(), sign, sleep);
+    }
+    
+    @Transactional
+    public void recordSymbols(Long userId, String symbols, int sign) {
+        List<String> split = splitSymbols(symbols);
+        if (split.isEmpty()) {
+            return;
+        }
+        lock(userId);
+        for (String symbol : split) {
+            rollupRepository.increment(userId, Metric.SYMBOL.name(), symbol, AnalyticsRollup.ALL_TIME, sign, 0);
+        }
+    }
+    
+    @Transactional
+    public void recordMood(Long userId, MoodEntry.Mood mood, LocalDate entryDate, int sign) {
+        lock(userId);
+        rollupRepository.increment(userId, Metric.MOOD_DAY.name(), mood.name(), entryDate, sign, 0);
+    }
+    
+    // All-time rows plus dated rows from `since` on; an empty list means the user was never rolled up
+    @Transactional(readOnly = true)
+    public List<AnalyticsRollup> getRollups(Long userId, LocalDate since) {
+        return rollupRepository.findForDashboard(userId, AnalyticsRollup.ALL_TIME, since);
+    }
+    
+    // First dashboard visit: concurrent loads wait on the lock and then find the rebuild done
+    @Transactional
+    public void backfillIfMissing(Long userId) {
+        lock(userId);
+        if (!rollupRepository.existsByUserIdAndMetric(userId, Metric.REBUILT)) {
+            rebuild(userId);
+        }
+    }
+    
+    @Transactional
+    public void rebuildForUser(Long userId) {
+        lock(userId);
+        rebuild(userId);
+    }
+    
+    @Transactional
+    public void deleteForUser(Long userId) {
+        lock(userId);
+        rollupRepository.deleteByUserId(userId);
+    }
+    
+    private void lock(Long userId) {
+        rollupRepository.lockUser(userId);
+    }
+    
+    private void rebuild(Long userId) {
+        rollupRepository.deleteByUserId(userId);
+        
+        Map<String, AnalyticsRollup> rollups = new HashMap<>();
+        add(rollups, userId, Metric.REBUILT, "", AnalyticsRollup.ALL_TIME, 1, 0);
+        add(rollups, userId, Metric.DREAMS, "", AnalyticsRollup.ALL_TIME, 0, 0);
+        
+        for (Object[] row : dreamRepository.findRollupSourceByUserId(userId)) {
+            Dream.Mood mood = (Dream.Mood) row[0];
+            long sleep = ((Integer) row[1]).longValue();
+            LocalDate day = ((LocalDateTime) row[2]).toLocalDate();
+            add(rollups, userId, Metric.DREAMS, "", AnalyticsRollup.ALL_TIME, 1, 0);
+            add(rollups, userId, Metric.DREAM_MOOD, mood.name(), AnalyticsRollup.ALL_TIME, 1, sleep);
+            add(rollups, userId, Metric.DREAM_DAY, "", day, 1, sleep);
+        }
+        
+        for (String symbols : interpretationRepository.findSymbolsByUser(userRepository.getReferenceById(userId))) {
+            for (String symbol : splitSymbols(symbols)) {
+                add(rollups, userId, Metric.SYMBOL, symbol, AnalyticsRollup.ALL_TIME, 1, 0);
+            }
+        }
+        
+        for (Object[] row : moodEntryRepository.findRollupSourceByUserId(userId)) {
+            MoodEntry.Mood mood = (MoodEntry.Mood) row[0];
+            add(rollups, userId, Metric.MOOD_DAY, mood.name(), (LocalDate) row[1], 1, 0);
+        }
+        
+        rollupRepository.saveAll(rollups.values());
+        // A rebuild can correct drifted numbers, so cached analytics must revalidate
+        dataVersions.bump(userId);
+    }
+    
+    private void add(Map<String, AnalyticsRollup> rollups, Long userId, Metric metric, String bucket,
+                     LocalDate bucketDate, long count, long total) {
+        String key = metric + "|" + bucket + "|" + bucketDate;
+        AnalyticsRollup rollup = rollups.computeIfAbsent(key, k -> {
+            AnalyticsRollup created = new AnalyticsRollup();
+            created.setUserId(userId);
+            created.setMetric(metric);
+            created.setBucket(bucket);
+            created.setBucketDate(bucketDate);
+            return created;
+        });
+        rollup.setItemCount(rollup.getItemCount() + count);
+        rollup.setValueTotal(rollup.getValueTotal() + total);
+    }
+    
+    static List<String> splitSymbols(String symbols) {
+        List<String> result = new ArrayList<>();
+        if (symbols == null || symbols.isEmpty()) {
+            return result;
+        }
+        for (String symbol : symbols.split(",")) {
+            String trimmedSymbol = symbol.trim();
+            if (trimmedSymbol.isEmpty()) {
+                continue;
+            }
+            if (trimmedSymbol.length() > MAX_BUCKET_LENGTH) {
+                trimmedSymbol = trimmedSymbol.substring(0, MAX_BUCKET_LENGTH);
+            }
+            result.add(trimmedSymbol);
+        }
+        return result;
+    }
+}
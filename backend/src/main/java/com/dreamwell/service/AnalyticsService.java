@@ -1,19 +1,13 @@
 package com.dreamwell.service;
 
-import com.dreamwell.entity.Dream;
-import com.dreamwell.entity.DreamInterpretation;
-import com.dreamwell.entity.MoodEntry;
+import com.dreamwell.entity.AnalyticsRollup;
 import com.dreamwell.entity.User;
-import com.dreamwell.repository.DreamInterpretationRepository;
-import com.dreamwell.repository.DreamRepository;
-import com.dreamwell.repository.MoodEntryRepository;
 import com.dreamwell.repository.UserRepository;
+import com.dreamwell.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -21,77 +15,91 @@ import java.util.stream.Collectors;
 public class AnalyticsService {
     
     @Autowired
-    private DreamRepository dreamRepository;
-    
-    @Autowired
-    private MoodEntryRepository moodEntryRepository;
-    
-    @Autowired
-    private DreamInterpretationRepository interpretationRepository;
+    private UserRepository userRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private AnalyticsRollupService rollupService;
     
     public Map<String, Object> getUserAnalytics() {
         User user = getCurrentUser();
-        Map<String, Object> analytics = new HashMap<>();
+        LocalDate today = LocalDate.now();
+        LocalDate monthAgo = today.minusDays(30);
+        LocalDate weekAgo = today.minusDays(7);
+        
+        // Served entirely from the per-user rollups: one query regardless of history size
+        List<AnalyticsRollup> rollups = rollupService.getRollups(user.getId(), monthAgo);
+        if (rollups.stream().noneMatch(r -> r.getMetric() == AnalyticsRollup.Metric.REBUILT)) {
+            // First visit since rollups were introduced: backfill this user once
+            rollupService.backfillIfMissing(user.getId());
+            rollups = rollupService.getRollups(user.getId(), monthAgo);
+        }
+        
+        long totalDreams = 0;
+        long recentDreams = 0;
+        long recentSleepTotal = 0;
+        Map<String, Integer> moodTrends = new HashMap<>();
+        Map<String, Object> moodSleepCorrelation = new HashMap<>();
+        Map<String, Long> symbolCount = new HashMap<>();
+        
+        for (AnalyticsRollup rollup : rollups) {
+            switch (rollup.getMetric()) {
+                case DREAMS -> totalDreams = rollup.getItemCount();
+                case DREAM_DAY -> {
+                    if (!rollup.getBucketDate().isBefore(weekAgo)) {
+                        recentDreams += rollup.getItemCount();
+                        recentSleepTotal += rollup.getValueTotal();
+                    }
+                }
+                case DREAM_MOOD -> {
+                    if (rollup.getItemCount() > 0) {
+                        moodSleepCorrelation.put(rollup.getBucket(), round((double) rollup.getValueTotal() / rollup.getItemCount()));
+                    }
+                }
+                case MOOD_DAY -> {
+                    if (rollup.getItemCount() > 0) {
+                        moodTrends.merge(rollup.getBucket(), rollup.getItemCount().intValue(), Integer::sum);
+                    }
+                }
+                case SYMBOL -> {
+                    if (rollup.getItemCount() > 0) {
+                        symbolCount.put(rollup.getBucket(), rollup.getItemCount());
+                    }
+                }
+                default -> {
+                }
+            }
+        }
         
-        // Total dreams count
-        Long totalDreams = dreamRepository.countByUser(user);
+        Map<String, Object> analytics = new HashMap<>();
         analytics.put("totalDreams", totalDreams);
         
         // Recent dreams (last 7 days)
-        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-        List<Dream> recentDreams = dreamRepository.findByUserAndDateRange(user, weekAgo, LocalDateTime.now());
-        analytics.put("recentDreamsCount", recentDreams.size());
+        analytics.put("recentDreamsCount", recentDreams);
         
         // Mood trends (last 30 days)
-        LocalDate monthAgo = LocalDate.now().minusDays(30);
-        List<MoodEntry> moodEntries = moodEntryRepository.findByUserAndDateRange(user, monthAgo, LocalDate.now());
-        analytics.put("moodTrends", getMoodTrends(moodEntries));
+        analytics.put("moodTrends", moodTrends);
         
         // Top recurring symbols
-        analytics.put("topSymbols", getTopSymbols(user));
+        analytics.put("topSymbols", getTopSymbols(symbolCount));
         
         // Mood vs Sleep quality correlation
-        analytics.put("moodSleepCorrelation", getMoodSleepCorrelation(user));
+        analytics.put("moodSleepCorrelation", moodSleepCorrelation);
         
         // Average sleep quality
-        analytics.put("averageSleepQuality", getAverageSleepQuality(recentDreams));
+        analytics.put("averageSleepQuality", recentDreams == 0 ? 0.0 : round((double) recentSleepTotal / recentDreams));
         
         // Most common mood
-        analytics.put("mostCommonMood", getMostCommonMood(moodEntries));
+        analytics.put("mostCommonMood", moodTrends.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse("N/A"));
         
         return analytics;
     }
     
-    private Map<String, Integer> getMoodTrends(List<MoodEntry> entries) {
-        return entries.stream()
-                .collect(Collectors.groupingBy(
-                    entry -> entry.getMood().name(),
-                    Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
-    }
-    
-    private List<Map<String, Object>> getTopSymbols(User user) {
-        List<Dream> dreams = dreamRepository.findByUserOrderByDreamDateDesc(user);
-        Map<String, Integer> symbolCount = new HashMap<>();
-        
-        for (Dream dream : dreams) {
-            interpretationRepository.findByDream(dream).ifPresent(interpretation -> {
-                String symbols = interpretation.getSymbols();
-                if (symbols != null && !symbols.isEmpty()) {
-                    String[] symbolArray = symbols.split(",");
-                    for (String symbol : symbolArray) {
-                        String trimmedSymbol = symbol.trim();
-                        symbolCount.put(trimmedSymbol, symbolCount.getOrDefault(trimmedSymbol, 0) + 1);
-                    }
-                }
-            });
-        }
-        
+    private List<Map<String, Object>> getTopSymbols(Map<String, Long> symbolCount) {
         return symbolCount.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
                 .limit(10)
                 .map(entry -> {
                     Map<String, Object> symbolData = new HashMap<>();
@@ -102,97 +110,11 @@ public class AnalyticsService {
                 .collect(Collectors.toList());
     }
     
-    private Map<String, Object> getMoodSleepCorrelation(User user) {
-        List<Dream> dreams = dreamRepository.findByUserOrderByDreamDateDesc(user);
-        Map<String, List<Integer>> moodSleepMap = new HashMap<>();
-        
-        for (Dream dream : dreams) {
-            String mood = dream.getMoodAtWake().name();
-            moodSleepMap.computeIfAbsent(mood, k -> new ArrayList<>()).add(dream.getSleepQuality());
-        }
-        
-        Map<String, Object> correlation = new HashMap<>();
-        for (Map.Entry<String, List<Integer>> entry : moodSleepMap.entrySet()) {
-            double average = entry.getValue().stream()
-                    .mapToInt(Integer::intValue)
-                    .average()
-                    .orElse(0.0);
-            correlation.put(entry.getKey(), Math.round(average * 100.0) / 100.0);
-        }
-        
-        return correlation;
-    }
-    
-    private Double getAverageSleepQuality(List<Dream> dreams) {
-        if (dreams.isEmpty()) return 0.0;
-        
-        double average = dreams.stream()
-                .mapToInt(Dream::getSleepQuality)
-                .average()
-                .orElse(0.0);
-        
-        return Math.round(average * 100.0) / 100.0;
-    }
-    
-    private String getMostCommonMood(List<MoodEntry> entries) {
-        if (entries.isEmpty()) return "N/A";
-        
-        return entries.stream()
-                .collect(Collectors.groupingBy(
-                    entry -> entry.getMood().name(),
-                    Collectors.counting()
-                ))
-                .entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("N/A");
-    }
-    
-    public String exportUserData() {
-        User user = getCurrentUser();
-        StringBuilder csv = new StringBuilder();
-        
-        // Export dreams
-        csv.append("DREAMS\n");
-        csv.append("Date,Title,Mood,Sleep Quality,Dream Text,Tags\n");
-        
-        List<Dream> dreams = dreamRepository.findByUserOrderByDreamDateDesc(user);
-        for (Dream dream : dreams) {
-            csv.append(String.format("%s,%s,%s,%d,\"%s\",%s\n",
-                dream.getDreamDate(),
-                escapeCsv(dream.getTitle()),
-                dream.getMoodAtWake().name(),
-                dream.getSleepQuality(),
-                escapeCsv(dream.getDreamText()),
-                escapeCsv(dream.getTags())
-            ));
-        }
-        
-        // Export mood entries
-        csv.append("\nMOOD ENTRIES\n");
-        csv.append("Date,Mood,Notes,Triggers\n");
-        
-        List<MoodEntry> moods = moodEntryRepository.findByUserOrderByEntryDateDesc(user);
-        for (MoodEntry mood : moods) {
-            csv.append(String.format("%s,%s,\"%s\",\"%s\"\n",
-                mood.getEntryDate(),
-                mood.getMood().name(),
-                escapeCsv(mood.getNotes()),
-                escapeCsv(mood.getTriggers())
-            ));
-        }
-        
-        return csv.toString();
-    }
-    
-    private String escapeCsv(String value) {
-        if (value == null) return "";
-        return value.replace("\"", "\"\"");
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
     }
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return userRepository.getReferenceById(AuthenticatedUser.current().id());
     }
 }
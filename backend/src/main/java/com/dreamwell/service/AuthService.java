@@ -1,20 +1,21 @@
 package com.dreamwell.service;
 
 import com.dreamwell.dto.*;
-import com.dreamwell.entity.RefreshToken;
 import com.dreamwell.entity.User;
-import com.dreamwell.repository.RefreshTokenRepository;
 import com.dreamwell.repository.UserRepository;
+import com.dreamwell.security.AccountUserDetails;
 import com.dreamwell.security.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -25,7 +26,7 @@ public class AuthService {
     private UserRepository userRepository;
     
     @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenService refreshTokenService;
     
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -37,93 +38,78 @@ public class AuthService {
     private AuthenticationManager authenticationManager;
     
     @Autowired
-    private UserDetailsService userDetailsService;
+    private SystemCounterService counterService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
     
     // @Autowired
     // private EmailService emailService; // Disabled for now
     
-    @Transactional
-    public AuthResponse signup(SignupRequest request) {
-        System.out.println("=== SIGNUP DEBUG START ===");
-        System.out.println("Signup request received for email: " + request.getEmail());
-        System.out.println("Name: " + request.getName());
-        System.out.println("Password length: " + (request.getPassword() != null ? request.getPassword().length() : 0));
-        
+    // Hashing runs before any connection is taken; the insert, counters and session then share
+    // one short transaction. The unique email constraint replaces a separate existence check.
+    public AuthResponse signup(SignupRequest request, String deviceName) {
+        User user = new User();
+        user.setName(request.getName());
+        user.setEmail(request.getEmail());
+        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setRole(User.Role.USER);
+        user.setIsActive(true);
+        user.setIsEmailVerified(true); // Auto-verify email
+        
+        // Skip email verification for now
+        
+        String refreshToken;
         try {
-            if (userRepository.existsByEmail(request.getEmail())) {
-                System.out.println("Email already exists: " + request.getEmail());
+            refreshToken = transactionTemplate.execute(status -> {
+                userRepository.save(user);
+                counterService.recordSignup();
+                return refreshTokenService.create(user.getId(), deviceName);
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(e)) {
                 throw new RuntimeException("Email already exists");
             }
-            System.out.println("Email check passed");
-            
-            User user = new User();
-            user.setName(request.getName());
-            user.setEmail(request.getEmail());
-            user.setPassword(passwordEncoder.encode(request.getPassword()));
-            user.setRole(User.Role.USER);
-            user.setIsActive(true);
-            user.setIsEmailVerified(true); // Auto-verify email
-            
-            System.out.println("User object created, saving to database...");
-            user = userRepository.save(user);
-            System.out.println("User saved successfully with ID: " + user.getId());
-            
-            // Skip email verification for now
-            
-            // Generate tokens
-            System.out.println("Generating tokens...");
-            UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-            String accessToken = jwtUtil.generateAccessToken(userDetails);
-            String refreshToken = createRefreshToken(user);
-            System.out.println("Tokens generated successfully");
-            
-            System.out.println("=== SIGNUP DEBUG SUCCESS ===");
-            return new AuthResponse(accessToken, refreshToken, UserDTO.fromEntity(user));
-        } catch (Exception e) {
-            System.out.println("=== SIGNUP DEBUG ERROR ===");
-            System.out.println("Error in signup: " + e.getClass().getName());
-            System.out.println("Error message: " + e.getMessage());
-            e.printStackTrace();
-            System.out.println("=== SIGNUP DEBUG ERROR END ===");
             throw e;
         }
+        
+        String accessToken = jwtUtil.generateAccessToken(user);
+        return new AuthResponse(accessToken, refreshToken, UserDTO.fromEntity(user));
     }
     
-    @Transactional
-    public AuthResponse login(AuthRequest request) {
-        authenticationManager.authenticate(
+    // The authenticated principal already carries the user row, so the only write is the session
+    public AuthResponse login(AuthRequest request, String deviceName) {
+        Authentication authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
-        
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = ((AccountUserDetails) authentication.getPrincipal()).getAccount();
         
         if (!user.getIsActive()) {
             throw new RuntimeException("Account is deactivated");
         }
         
-        UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
-        String accessToken = jwtUtil.generateAccessToken(userDetails);
-        String refreshToken = createRefreshToken(user);
+        String accessToken = jwtUtil.generateAccessToken(user);
+        // Adds a session for this device; other devices stay signed in
+        String refreshToken = refreshTokenService.create(user.getId(), deviceName);
         
         return new AuthResponse(accessToken, refreshToken, UserDTO.fromEntity(user));
     }
     
     @Transactional
     public AuthResponse refreshToken(String refreshToken) {
-        RefreshToken token = refreshTokenRepository.findByToken(refreshToken)
-                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
         
-        if (token.isExpired()) {
-            refreshTokenRepository.delete(token);
-            throw new RuntimeException("Refresh token expired");
+        User user = rotation.user();
+        if (!user.getIsActive()) {
+            throw new RuntimeException("Account is deactivated");
         }
+        String newAccessToken = jwtUtil.generateAccessToken(user);
         
-        User user = token.getUser();
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-        String newAccessToken = jwtUtil.generateAccessToken(userDetails);
-        
-        return new AuthResponse(newAccessToken, refreshToken, UserDTO.fromEntity(user));
+        return new AuthResponse(newAccessToken, rotation.refreshToken(), UserDTO.fromEntity(user));
+    }
+    
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
     }
     
     @Transactional
@@ -154,7 +140,8 @@ public class AuthService {
         // emailService.sendPasswordResetEmail(user.getEmail(), user.getName(), resetToken); // Disabled for now
     }
     
-    @Transactional
+    // Like signup: the token is checked and the password hashed with no transaction open, then the
+    // update (which consumes the token) and the session revocation commit together
     public void resetPassword(String token, String newPassword) {
         User user = userRepository.findByPasswordResetToken(token)
                 .orElseThrow(() -> new RuntimeException("Invalid reset token"));
@@ -163,22 +150,25 @@ public class AuthService {
             throw new RuntimeException("Reset token expired");
         }
         
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setPasswordResetToken(null);
-        user.setPasswordResetTokenExpiry(null);
-        userRepository.save(user);
+        String newHash = passwordEncoder.encode(newPassword);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepository.resetPassword(token, newHash, LocalDateTime.now()) == 0) {
+                throw new RuntimeException("Invalid reset token");
+            }
+            // Whoever knew the old password may hold sessions on other devices
+            refreshTokenService.revokeAll(user);
+        });
     }
     
-    private String createRefreshToken(User user) {
-        // Delete existing refresh tokens for the user
-        refreshTokenRepository.deleteByUser(user);
-        
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setExpiryDate(LocalDateTime.now().plusDays(7));
-        
-        refreshToken = refreshTokenRepository.save(refreshToken);
-        return refreshToken.getToken();
+    // Only a unique violation on users.email means the address is taken; the constraint name is
+    // generated by Hibernate, so PostgreSQL's "Key (email)=(...) already exists" detail is matched
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && "23505".equals(sql.getSQLState())) {
+                String message = sql.getMessage();
+                return message != null && message.contains("(email)");
+            }
+        }
+        return false;
     }
 }
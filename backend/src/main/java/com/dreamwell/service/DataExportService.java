@@ -0,0 +1,314 @@
+package com.dreamwell.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Streams a user's dreams, interpretations and mood entries as CSV or NDJSON. Rows are read in
+// keyset batches, newest first. Each batch is a short query whose rows are copied out before any
+// of them is written, so a connection is never held while a slow client or disk drains the output,
+// and memory use is bounded by the batch size whatever a user has logged.
+@Service
+public class DataExportService {
+    
+    private static final Section DREAMS = new Section("dream", "DREAMS", "dreams",
+            "SELECT dream_date, title, mood_at_wake, sleep_quality, dream_text, tags, dream_date AS key_date, id AS key_id " +
+            "FROM dreams WHERE user_id = ?",
+            "dream_date, id",
+            "SELECT COUNT(*) FROM dreams WHERE user_id = ?",
+            List.of(
+                new Column("dream_date", "Date", "date", Kind.TIMESTAMP),
+                new Column("title", "Title", "title", Kind.TEXT),
+                new Column("mood_at_wake", "Mood", "mood", Kind.TEXT),
+                new Column("sleep_quality", "Sleep Quality", "sleepQuality", Kind.NUMBER),
+                new Column("dream_text", "Dream Text", "dreamText", Kind.TEXT),
+                new Column("tags", "Tags", "tags", Kind.TEXT)
+            ));
+    
+    // One interpretation per dream, so the dream's key orders these too
+    private static final Section INTERPRETATIONS = new Section("interpretation", "INTERPRETATIONS", "interpretations",
+            "SELECT d.dream_date, d.title, i.short_summary, i.detailed_explanation, i.predicted_emotions, " +
+            "i.why_occurred, i.suggested_actions, i.risk_flags, i.symbols, i.created_at, d.dream_date AS key_date, d.id AS key_id " +
+            "FROM dream_interpretations i JOIN dreams d ON d.id = i.dream_id WHERE d.user_id = ?",
+            "d.dream_date, d.id",
+            "SELECT COUNT(*) FROM dream_interpretations i JOIN dreams d ON d.id = i.dream_id WHERE d.user_id = ?",
+            List.of(
+                new Column("dream_date", "Dream Date", "dreamDate", Kind.TIMESTAMP),
+                new Column("title", "Dream Title", "dreamTitle", Kind.TEXT),
+                new Column("short_summary", "Summary", "shortSummary", Kind.TEXT),
+                new Column("detailed_explanation", "Explanation", "detailedExplanation", Kind.TEXT),
+                new Column("predicted_emotions", "Emotions", "predictedEmotions", Kind.TEXT),
+                new Column("why_occurred", "Why It Occurred", "whyOccurred", Kind.TEXT),
+                new Column("suggested_actions", "Suggested Actions", "suggestedActions", Kind.TEXT),
+                new Column("risk_flags", "Risk Flags", "riskFlags", Kind.TEXT),
+                new Column("symbols", "Symbols", "symbols", Kind.TEXT),
+                new Column("created_at", "Interpreted At", "createdAt", Kind.TIMESTAMP)
+            ));
+    
+    private static final Section MOODS = new Section("mood", "MOOD ENTRIES", "moods",
+            "SELECT entry_date, mood, notes, triggers, entry_date AS key_date, id AS key_id " +
+            "FROM mood_entries WHERE user_id = ?",
+            "entry_date, id",
+            "SELECT COUNT(*) FROM mood_entries WHERE user_id = ?",
+            List.of(
+                new Column("entry_date", "Date", "date", Kind.TEXT),
+                new Column("mood", "Mood", "mood", Kind.TEXT),
+                new Column("notes", "Notes", "notes", Kind.TEXT),
+                new Column("triggers", "Triggers", "triggers", Kind.TEXT)
+            ));
+    
+    // The direct download keeps its original two sections; archives also carry interpretations
+    private static final List<Section> STREAM_SECTIONS = List.of(DREAMS, MOODS);
+    private static final List<Section> ARCHIVE_SECTIONS = List.of(DREAMS, INTERPRETATIONS, MOODS);
+    
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+        
+        private final String contentType;
+        private final String extension;
+        
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String contentType() {
+            return contentType;
+        }
+        
+        public String extension() {
+            return extension;
+        }
+        
+        public String fileName(boolean gzip) {
+            return "dreamwell-data." + extension + (gzip ? ".gz" : "");
+        }
+        
+        public static Format parse(String format) {
+            if (format == null || format.isBlank()) {
+                return CSV;
+            }
+            try {
+                return valueOf(format.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Invalid export format: " + format);
+            }
+        }
+    }
+    
+    // Reported by archive exports; called from the exporting thread
+    public interface Progress {
+        void started(long totalRecords);
+        
+        void advanced(long recordsWritten);
+    }
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // Rows per query; each batch is held in memory until it has been written
+    @Value("${export.batch-size:500}")
+    private int batchSize;
+    
+    // Does not close out; the caller owns the stream
+    public void write(Long userId, Format format, boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+            compressed != null ? compressed : out, StandardCharsets.UTF_8));
+        long[] written = {0};
+        for (int i = 0; i < STREAM_SECTIONS.size(); i++) {
+            Section section = STREAM_SECTIONS.get(i);
+            // CSV keeps both tables in one file, each under a title line
+            if (format == Format.CSV) {
+                writer.write((i > 0 ? "\r\n" : "") + section.title() + "\r\n");
+            }
+            writeSection(userId, section, format, writer, written, null);
+        }
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+    }
+    
+    // Zip archive with one file per section, written to target
+    public void writeArchive(Long userId, Format format, Path target, Progress progress) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(target)));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8))) {
+            // Total is an estimate for the progress bar; rows written meanwhile are simply included
+            long total = 0;
+            for (Section section : ARCHIVE_SECTIONS) {
+                Long count = jdbcTemplate.queryForObject(section.countSql(), Long.class, userId);
+                total += count != null ? count : 0;
+            }
+            progress.started(total);
+            
+            long[] written = {0};
+            for (Section section : ARCHIVE_SECTIONS) {
+                zip.putNextEntry(new ZipEntry(section.fileStem() + "." + format.extension()));
+                writeSection(userId, section, format, writer, written, progress);
+                writer.flush();
+                zip.closeEntry();
+            }
+        }
+    }
+    
+    private void writeSection(Long userId, Section section, Format format, Writer writer,
+                              long[] written, Progress progress) throws IOException {
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+        } else {
+            writeCsvRow(writer, section.columns().stream().map(Column::header).toArray(String[]::new));
+        }
+        
+        Object[] after = null;
+        while (true) {
+            List<Object[]> batch = readBatch(userId, section, after);
+            for (Object[] row : batch) {
+                if (json != null) {
+                    writeJsonRow(json, section, row);
+                } else {
+                    String[] fields = new String[section.columns().size()];
+                    for (int i = 0; i < fields.length; i++) {
+                        fields[i] = row[i] != null ? row[i].toString() : null;
+                    }
+                    writeCsvRow(writer, fields);
+                }
+                written[0]++;
+                if (progress != null) {
+                    progress.advanced(written[0]);
+                }
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+            Object[] last = batch.get(batch.size() - 1);
+            after = new Object[]{last[last.length - 2], last[last.length - 1]};
+        }
+        
+        if (json != null) {
+            json.flush();
+        }
+    }
+    
+    // Next page after the (date, id) key of the previous one; the connection goes back to the pool
+    // before the rows are written. Each row is the column values followed by its two key values.
+    private List<Object[]> readBatch(Long userId, Section section, Object[] after) {
+        String order = " ORDER BY " + section.keyColumns().replace(",", " DESC,") + " DESC LIMIT ?";
+        RowMapper<Object[]> mapper = (rs, rowNum) -> {
+            List<Column> columns = section.columns();
+            Object[] row = new Object[columns.size() + 2];
+            for (int i = 0; i < columns.size(); i++) {
+                row[i] = value(rs, columns.get(i));
+            }
+            row[columns.size()] = rs.getObject("key_date");
+            row[columns.size() + 1] = rs.getLong("key_id");
+            return row;
+        };
+        if (after == null) {
+            return jdbcTemplate.query(section.sql() + order, mapper, userId, batchSize);
+        }
+        String keyset = " AND (" + section.keyColumns() + ") < (?, ?)";
+        return jdbcTemplate.query(section.sql() + keyset + order, mapper, userId, after[0], after[1], batchSize);
+    }
+    
+    // One JSON object per line, tagged with its record type
+    private void writeJsonRow(JsonGenerator json, Section section, Object[] row) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", section.type());
+        for (int i = 0; i < section.columns().size(); i++) {
+            Object value = row[i];
+            json.writeFieldName(section.columns().get(i).field());
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof Number number) {
+                json.writeNumber(number.longValue());
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+    
+    // RFC 4180: quoted only when needed, embedded quotes doubled, CRLF line breaks
+    private void writeCsvRow(Writer writer, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvField(writer, fields[i]);
+        }
+        writer.write("\r\n");
+    }
+    
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+    
+    private Object value(ResultSet rs, Column column) throws SQLException {
+        switch (column.kind()) {
+            case NUMBER:
+                return (Number) rs.getObject(column.name());
+            case TIMESTAMP:
+                // Same ISO-8601 text the entity-based export produced
+                Timestamp value = rs.getTimestamp(column.name());
+                return value != null ? value.toLocalDateTime().toString() : null;
+            default:
+                return rs.getString(column.name());
+        }
+    }
+    
+    private enum Kind {
+        TEXT, NUMBER, TIMESTAMP
+    }
+    
+    private record Column(String name, String header, String field, Kind kind) {
+    }
+    
+    // sql selects the columns, then key_date and key_id; keyColumns is the matching (date, id) pair
+    private record Section(String type, String title, String fileStem, String sql, String keyColumns,
+                           String countSql, List<Column> columns) {
+    }
+}
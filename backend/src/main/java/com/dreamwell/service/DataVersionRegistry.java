@@ -0,0 +1,179 @@
+package com.dreamwell.service;
+
+import com.dreamwell.repository.UserRepository;
+import com.dreamwell.security.AuthenticatedUser;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-user data version behind the ETags of the dashboard reads. Every write to a user's dreams,
+// moods, interpretations or profile bumps users.data_version in the writer's transaction.
+// In database mode (the default) a conditional GET reads that column by primary key, so a write
+// on any instance is seen by the next read on every other one. memory mode answers from a local
+// copy moved after commit, with no query at all; it is only correct on a single instance, since
+// versions bumped elsewhere would arrive with the periodic refresh and a client could meanwhile
+// get 304 for data it has just changed.
+@Service
+public class DataVersionRegistry {
+    
+    private static final int REFRESH_BATCH_SIZE = 500;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${etag.enabled:true}")
+    private boolean enabled;
+    
+    // database (read per request, safe on several nodes) or memory (single node only)
+    @Value("${etag.mode:database}")
+    private String mode;
+    
+    // Users not polled for this long are dropped and re-read on their next request
+    @Value("${etag.idle-ms:600000}")
+    private long idleMs;
+    
+    private final Map<Long, Tracked> versions = new ConcurrentHashMap<>();
+    
+    private boolean memoryMode;
+    
+    @PostConstruct
+    void init() {
+        memoryMode = "memory".equalsIgnoreCase(mode);
+    }
+    
+    // Must run inside the write's transaction so the version commits with the data
+    @Transactional
+    public void bump(Long userId) {
+        userRepository.incrementDataVersion(userId);
+        long version = userRepository.findDataVersion(userId).orElse(0L);
+        afterCommit(() -> {
+            Tracked tracked = versions.get(userId);
+            if (tracked != null) {
+                tracked.advance(version);
+            }
+        });
+    }
+    
+    public void forget(Long userId) {
+        afterCommit(() -> versions.remove(userId));
+    }
+    
+    // Answers 304 when the client's If-None-Match matches the current user's version.
+    // The version is read before the caller's queries run, so a write racing with the
+    // read can only make the tag older than the body, which costs one extra 200 later.
+    public boolean notModified(WebRequest request) {
+        return notModified(request, null);
+    }
+    
+    // variant covers response parts that change without a write, such as rate limit refills
+    public boolean notModified(WebRequest request, String variant) {
+        if (!enabled) {
+            return false;
+        }
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            // Stored by the browser but revalidated on every use; replaces Spring Security's no-store
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            // A cached body belongs to the token it was fetched with, not just to the URL
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        }
+        return request.checkNotModified(etag(AuthenticatedUser.current().id(), variant));
+    }
+    
+    // The user id keeps another account on the same browser from matching this one's cached
+    // entry (new accounts all start at similar versions). Day is part of the tag because
+    // analytics windows and quotas roll over at midnight.
+    private String etag(Long userId, String variant) {
+        StringBuilder tag = new StringBuilder("\"")
+                .append(userId)
+                .append('-')
+                .append(currentVersion(userId))
+                .append('-')
+                .append(LocalDate.now().toEpochDay());
+        if (variant != null) {
+            tag.append('-').append(variant);
+        }
+        return tag.append('"').toString();
+    }
+    
+    private long currentVersion(Long userId) {
+        if (!memoryMode) {
+            return userRepository.findDataVersion(userId).orElse(0L);
+        }
+        Tracked tracked = versions.get(userId);
+        if (tracked == null) {
+            long version = userRepository.findDataVersion(userId).orElse(0L);
+            tracked = versions.computeIfAbsent(userId, id -> new Tracked(version));
+            tracked.advance(version);
+        }
+        tracked.lastUsed = System.currentTimeMillis();
+        return tracked.version;
+    }
+    
+    // Picks up versions bumped by other instances for the users this instance is serving
+    @Scheduled(fixedDelayString = "${etag.refresh-ms:5000}")
+    public void refresh() {
+        if (!memoryMode || versions.isEmpty()) {
+            return;
+        }
+        long idleBefore = System.currentTimeMillis() - idleMs;
+        versions.values().removeIf(tracked -> tracked.lastUsed < idleBefore);
+        
+        try {
+            List<Long> userIds = new ArrayList<>(versions.keySet());
+            for (int from = 0; from < userIds.size(); from += REFRESH_BATCH_SIZE) {
+                List<Long> batch = userIds.subList(from, Math.min(from + REFRESH_BATCH_SIZE, userIds.size()));
+                for (Object[] row : userRepository.findDataVersions(batch)) {
+                    Tracked tracked = versions.get((Long) row[0]);
+                    if (tracked != null) {
+                        tracked.advance((Long) row[1]);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Data version refresh failed: " + e.getMessage());
+        }
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    private static final class Tracked {
+        private volatile long version;
+        private volatile long lastUsed = System.currentTimeMillis();
+        
+        private Tracked(long version) {
+            this.version = version;
+        }
+        
+        // Versions only grow, so a late refresh never moves a tag backwards
+        private synchronized void advance(long newVersion) {
+            if (newVersion > version) {
+                version = newVersion;
+            }
+        }
+    }
+}
@@ -1,27 +1,36 @@
 package com.dreamwell.service;
 
+import com.dreamwell.dto.CursorPage;
 import com.dreamwell.dto.DreamInterpretationDTO;
 import com.dreamwell.dto.DreamRequest;
 import com.dreamwell.dto.DreamResponse;
+import com.dreamwell.dto.DreamSummary;
+import com.dreamwell.dto.InterpretationResult;
+import com.dreamwell.dto.InterpretationStatusResponse;
 import com.dreamwell.entity.Dream;
 import com.dreamwell.entity.DreamInterpretation;
 import com.dreamwell.entity.User;
 import com.dreamwell.repository.DreamInterpretationRepository;
 import com.dreamwell.repository.DreamRepository;
 import com.dreamwell.repository.UserRepository;
+import com.dreamwell.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class DreamService {
     
+    private static final Pattern SEARCH_TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+    
     @Autowired
     private DreamRepository dreamRepository;
     
@@ -34,6 +43,27 @@ public class DreamService {
     @Autowired
     private GroqApiService groqApiService;
     
+    @Autowired
+    private InterpretationWriter interpretationWriter;
+    
+    @Autowired
+    private AnalyticsRollupService rollupService;
+    
+    @Autowired
+    private SystemCounterService counterService;
+    
+    @Autowired
+    private InterpretationJobService interpretationJobService;
+    
+    @Autowired
+    private InterpretationNotifier interpretationNotifier;
+    
+    @Autowired
+    private InterpretationStreamService interpretationStreamService;
+    
+    @Autowired
+    private DataVersionRegistry dataVersions;
+    
     @Transactional
     public DreamResponse createDream(DreamRequest request) {
         User user = getCurrentUser();
@@ -49,58 +79,64 @@ public class DreamService {
         dream.setIsPrivate(request.getIsPrivate());
         dream.setUserNotes(request.getUserNotes());
         
-        dream = dreamRepository.save(dream);
-        
-        // Generate AI interpretation
-        Map<String, String> interpretation = groqApiService.interpretDream(
-            dream.getDreamText(), 
-            dream.getMoodAtWake().name(), 
-            dream.getSleepQuality()
-        );
+        dream.setInterpretationStatus(Dream.InterpretationStatus.PENDING);
         
-        DreamInterpretation dreamInterpretation = new DreamInterpretation();
-        dreamInterpretation.setDream(dream);
-        dreamInterpretation.setShortSummary(interpretation.get("shortSummary"));
-        dreamInterpretation.setDetailedExplanation(interpretation.get("detailedExplanation"));
-        dreamInterpretation.setPredictedEmotions(interpretation.get("predictedEmotions"));
-        dreamInterpretation.setWhyOccurred(interpretation.get("whyOccurred"));
-        dreamInterpretation.setSuggestedActions(interpretation.get("suggestedActions"));
-        dreamInterpretation.setRiskFlags(interpretation.get("riskFlags"));
-        dreamInterpretation.setSymbols(interpretation.get("symbols"));
-        
-        // Check for risk flags
-        String riskFlags = interpretation.get("riskFlags").toLowerCase();
-        boolean hasRisk = !riskFlags.equals("none") && 
-                         (riskFlags.contains("self-harm") || 
-                          riskFlags.contains("violence") || 
-                          riskFlags.contains("suicide"));
-        dreamInterpretation.setHasRiskFlag(hasRisk);
-        
-        if (hasRisk) {
-            dream.setIsFlagged(true);
-            dream.setFlagReason(interpretation.get("riskFlags"));
-            dreamRepository.save(dream);
-        }
+        dream = dreamRepository.save(dream);
+        rollupService.recordDream(user.getId(), dream.getMoodAtWake(), dream.getSleepQuality(), dream.getDreamDate(), 1);
+        counterService.increment(SystemCounterService.DREAMS, 1);
+        dataVersions.bump(user.getId());
         
-        dreamInterpretation = interpretationRepository.save(dreamInterpretation);
+        // Interpretation runs on the worker pool once this transaction commits
+        interpretationJobService.submitAfterCommit(dream.getId());
         
         DreamResponse response = DreamResponse.fromEntity(dream);
-        response.setInterpretation(DreamInterpretationDTO.fromEntity(dreamInterpretation));
-        
         return response;
     }
     
-    public List<DreamResponse> getAllDreams() {
+    public CursorPage<DreamResponse> getAllDreams(String cursor, Integer limit) {
         User user = getCurrentUser();
-        List<Dream> dreams = dreamRepository.findByUserOrderByDreamDateDesc(user);
+        CursorPage<Dream> page = CursorPage.fetch(cursor, limit, LocalDateTime::parse,
+            pageable -> dreamRepository.findByUserOrderByDreamDateDescIdDesc(user, pageable),
+            (dreamDate, id, pageable) -> dreamRepository.findPageAfter(user, dreamDate, id, pageable),
+            Dream::getDreamDate, Dream::getId);
+        
+        List<Dream> dreams = page.getItems();
+        if (dreams.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        
+        Map<Long, DreamInterpretation> interpretations = interpretationRepository.findByDreamIn(dreams).stream()
+                .collect(Collectors.toMap(i -> i.getDream().getId(), Function.identity(), (a, b) -> a));
         
-        return dreams.stream().map(dream -> {
+        List<DreamResponse> responses = dreams.stream().map(dream -> {
             DreamResponse response = DreamResponse.fromEntity(dream);
-            interpretationRepository.findByDream(dream).ifPresent(interpretation -> 
-                response.setInterpretation(DreamInterpretationDTO.fromEntity(interpretation))
-            );
+            DreamInterpretation interpretation = interpretations.get(dream.getId());
+            if (interpretation != null) {
+                response.setInterpretation(DreamInterpretationDTO.fromEntity(interpretation));
+            }
             return response;
         }).collect(Collectors.toList());
+        
+        return new CursorPage<>(responses, page.getNextCursor());
+    }
+    
+    // Same keyset paging as getAllDreams, but rows are projected straight into DTOs: no dream
+    // text, no interpretation bodies, and no entities for Hibernate to manage or dirty-check
+    public CursorPage<DreamSummary> getDreamSummaries(String cursor, Integer limit) {
+        Long userId = AuthenticatedUser.current().id();
+        return CursorPage.fetch(cursor, limit, LocalDateTime::parse,
+            pageable -> dreamRepository.findSummaries(userId, pageable),
+            (dreamDate, id, pageable) -> dreamRepository.findSummariesAfter(userId, dreamDate, id, pageable),
+            DreamSummary::getDreamDate, DreamSummary::getId);
+    }
+    
+    // Cheap ownership check for callers that answer before loading the dream (conditional GETs)
+    public void checkDreamAccess(Long id) {
+        Long ownerId = dreamRepository.findUserIdById(id)
+                .orElseThrow(() -> new RuntimeException("Dream not found"));
+        if (!ownerId.equals(AuthenticatedUser.current().id())) {
+            throw new RuntimeException("Access denied");
+        }
     }
     
     public DreamResponse getDreamById(Long id) {
@@ -130,6 +166,8 @@ public class DreamService {
             throw new RuntimeException("Access denied");
         }
         
+        rollupService.recordDream(user.getId(), dream.getMoodAtWake(), dream.getSleepQuality(), dream.getDreamDate(), -1);
+        
         dream.setTitle(request.getTitle());
         dream.setDreamText(request.getDreamText());
         dream.setTags(request.getTags());
@@ -140,6 +178,8 @@ public class DreamService {
         dream.setUserNotes(request.getUserNotes());
         
         dream = dreamRepository.save(dream);
+        rollupService.recordDream(user.getId(), dream.getMoodAtWake(), dream.getSleepQuality(), dream.getDreamDate(), 1);
+        dataVersions.bump(user.getId());
         
         DreamResponse response = DreamResponse.fromEntity(dream);
         interpretationRepository.findByDream(dream).ifPresent(interpretation -> 
@@ -159,17 +199,72 @@ public class DreamService {
             throw new RuntimeException("Access denied");
         }
         
+        rollupService.recordDream(user.getId(), dream.getMoodAtWake(), dream.getSleepQuality(), dream.getDreamDate(), -1);
+        counterService.increment(SystemCounterService.DREAMS, -1);
+        if (Boolean.TRUE.equals(dream.getIsFlagged())) {
+            counterService.increment(SystemCounterService.FLAGGED_DREAMS, -1);
+        }
+        interpretationRepository.findByDream(dream).ifPresent(interpretation -> {
+            rollupService.recordSymbols(user.getId(), interpretation.getSymbols(), -1);
+            counterService.recordSymbols(interpretation.getSymbols(), -1);
+            interpretationRepository.delete(interpretation);
+        });
+        
         dreamRepository.delete(dream);
+        dataVersions.bump(user.getId());
     }
     
-    public List<DreamResponse> searchDreams(String keyword) {
+    public CursorPage<DreamResponse> searchDreams(String keyword, String cursor, Integer limit) {
         User user = getCurrentUser();
-        List<Dream> dreams = dreamRepository.searchDreams(user, keyword);
+        int pageSize = CursorPage.clampLimit(limit);
+        
+        // Every word must match, each as a prefix: "fly mount" -> "fly:* & mount:*"
+        String tsQuery = SEARCH_TERM.matcher(keyword == null ? "" : keyword).results()
+                .map(match -> match.group() + ":*")
+                .collect(Collectors.joining(" & "));
+        if (tsQuery.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        
+        double afterRank = Double.MAX_VALUE;
+        long afterId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = CursorPage.decodeCursor(cursor);
+            try {
+                afterRank = Double.parseDouble(position[0]);
+                afterId = Long.parseLong(position[1]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+        
+        List<Object[]> hits = dreamRepository.searchDreams(user.getId(), tsQuery, afterRank, afterId, pageSize + 1);
+        
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            Object[] last = hits.get(pageSize - 1);
+            nextCursor = CursorPage.encodeCursor(((Number) last[1]).doubleValue(), ((Number) last[0]).longValue());
+        }
         
-        return dreams.stream().map(DreamResponse::fromEntity).collect(Collectors.toList());
+        List<Long> ids = hits.stream().map(hit -> ((Number) hit[0]).longValue()).collect(Collectors.toList());
+        Map<Long, Dream> dreams = dreamRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Dream::getId, Function.identity()));
+        
+        // Keep the rank order from the search query
+        List<DreamResponse> results = hits.stream()
+                .filter(hit -> dreams.containsKey(((Number) hit[0]).longValue()))
+                .map(hit -> {
+                    DreamResponse response = DreamResponse.fromEntity(dreams.get(((Number) hit[0]).longValue()));
+                    response.setSnippet((String) hit[2]);
+                    return response;
+                })
+                .collect(Collectors.toList());
+        
+        return new CursorPage<>(results, nextCursor);
     }
     
-    @Transactional
+    // Deliberately not @Transactional: no connection is held during the Groq round trip
     public DreamInterpretationDTO reinterpretDream(Long dreamId) {
         User user = getCurrentUser();
         Dream dream = dreamRepository.findById(dreamId)
@@ -180,39 +275,63 @@ public class DreamService {
         }
         
         // Generate new interpretation
-        Map<String, String> interpretation = groqApiService.interpretDream(
+        InterpretationResult interpretation = groqApiService.interpretDream(
             dream.getDreamText(), 
             dream.getMoodAtWake().name(), 
             dream.getSleepQuality()
         );
         
-        DreamInterpretation dreamInterpretation = interpretationRepository.findByDream(dream)
-                .orElse(new DreamInterpretation());
+        DreamInterpretation dreamInterpretation = interpretationWriter.saveInterpretation(dreamId, interpretation);
+        
+        return DreamInterpretationDTO.fromEntity(dreamInterpretation);
+    }
+    
+    public InterpretationStatusResponse getInterpretationStatus(Long dreamId) {
+        User user = getCurrentUser();
+        Dream dream = dreamRepository.findById(dreamId)
+                .orElseThrow(() -> new RuntimeException("Dream not found"));
+        
+        if (!dream.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Access denied");
+        }
         
-        dreamInterpretation.setDream(dream);
-        dreamInterpretation.setShortSummary(interpretation.get("shortSummary"));
-        dreamInterpretation.setDetailedExplanation(interpretation.get("detailedExplanation"));
-        dreamInterpretation.setPredictedEmotions(interpretation.get("predictedEmotions"));
-        dreamInterpretation.setWhyOccurred(interpretation.get("whyOccurred"));
-        dreamInterpretation.setSuggestedActions(interpretation.get("suggestedActions"));
-        dreamInterpretation.setRiskFlags(interpretation.get("riskFlags"));
-        dreamInterpretation.setSymbols(interpretation.get("symbols"));
+        return interpretationJobService.getStatus(dream);
+    }
+    
+    public SseEmitter subscribeToInterpretation(Long dreamId) {
+        // Access check first: nothing is registered for a dream the caller cannot see
+        getInterpretationStatus(dreamId);
+        
+        // Subscribe before re-reading the status so a job finishing in between is not missed
+        SseEmitter emitter = interpretationNotifier.subscribe(dreamId);
+        try {
+            InterpretationStatusResponse status = getInterpretationStatus(dreamId);
+            if (!Dream.InterpretationStatus.PENDING.name().equals(status.getStatus())) {
+                interpretationNotifier.publish(status);
+            }
+        } catch (RuntimeException e) {
+            // The emitter never reaches Spring MVC, so its completion callback would not remove it
+            interpretationNotifier.unsubscribe(dreamId, emitter);
+            throw e;
+        }
         
-        String riskFlags = interpretation.get("riskFlags").toLowerCase();
-        boolean hasRisk = !riskFlags.equals("none") && 
-                         (riskFlags.contains("self-harm") || 
-                          riskFlags.contains("violence") || 
-                          riskFlags.contains("suicide"));
-        dreamInterpretation.setHasRiskFlag(hasRisk);
+        return emitter;
+    }
+    
+    // Like reinterpretDream, but the client sees tokens as they are generated
+    public SseEmitter streamInterpretation(Long dreamId) {
+        User user = getCurrentUser();
+        Dream dream = dreamRepository.findById(dreamId)
+                .orElseThrow(() -> new RuntimeException("Dream not found"));
         
-        dreamInterpretation = interpretationRepository.save(dreamInterpretation);
+        if (!dream.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Access denied");
+        }
         
-        return DreamInterpretationDTO.fromEntity(dreamInterpretation);
+        return interpretationStreamService.stream(dream);
     }
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return userRepository.getReferenceById(AuthenticatedUser.current().id());
     }
 }
@@ -0,0 +1,250 @@
+package com.dreamwell.service;
+
+import com.dreamwell.dto.ExportJobResponse;
+import com.dreamwell.entity.ExportJob;
+import com.dreamwell.repository.ExportJobRepository;
+import com.dreamwell.security.AuthenticatedUser;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Background exports: a request only inserts the job row and queues it on the export pool.
+// The worker writes a zip archive of dreams, interpretations and moods to local disk under a
+// temporary name, renames it when complete, and the file is then downloadable (with Range
+// support) until it expires. Files live on this instance's disk, so downloads must reach the
+// instance that ran the job.
+@Service
+public class ExportJobService {
+    
+    private static final List<ExportJob.Status> ACTIVE = List.of(ExportJob.Status.QUEUED, ExportJob.Status.RUNNING);
+    
+    @Autowired
+    private ExportJobRepository exportJobRepository;
+    
+    @Autowired
+    private DataExportService dataExportService;
+    
+    @Autowired
+    @Qualifier("exportExecutor")
+    private ThreadPoolTaskExecutor exportExecutor;
+    
+    @Value("${export.directory:${java.io.tmpdir}/dreamwell-exports}")
+    private String directory;
+    
+    @Value("${export.ttl-hours:24}")
+    private long ttlHours;
+    
+    // Progress is written to the job row at most this often
+    @Value("${export.progress-interval-ms:1000}")
+    private long progressIntervalMs;
+    
+    // A QUEUED or RUNNING job older than this was lost with a restart and is marked failed
+    @Value("${export.stale-after-ms:3600000}")
+    private long staleAfterMs;
+    
+    private Path exportDirectory;
+    
+    @PostConstruct
+    void init() throws IOException {
+        exportDirectory = Paths.get(directory).toAbsolutePath();
+        Files.createDirectories(exportDirectory);
+    }
+    
+    // One export at a time per user: asking again while one is running returns that job. The
+    // partial unique index idx_export_jobs_active_user settles two requests racing past the check.
+    public ExportJobResponse create(String format) {
+        DataExportService.Format exportFormat = DataExportService.Format.parse(format);
+        Long userId = AuthenticatedUser.current().id();
+        
+        ExportJob active = exportJobRepository.findFirstByUserIdAndStatusInOrderByCreatedAtDesc(userId, ACTIVE).orElse(null);
+        if (active != null) {
+            return ExportJobResponse.fromEntity(active);
+        }
+        
+        ExportJob job = new ExportJob();
+        job.setUserId(userId);
+        job.setFormat(exportFormat);
+        try {
+            job = exportJobRepository.save(job);
+        } catch (DataIntegrityViolationException e) {
+            return exportJobRepository.findFirstByUserIdAndStatusInOrderByCreatedAtDesc(userId, ACTIVE)
+                    .map(ExportJobResponse::fromEntity)
+                    .orElseThrow(() -> e);
+        }
+        
+        Long jobId = job.getId();
+        try {
+            exportExecutor.execute(() -> run(jobId, userId, exportFormat));
+        } catch (TaskRejectedException e) {
+            fail(jobId, "Export queue is full, please try again shortly");
+            throw e;
+        }
+        return ExportJobResponse.fromEntity(job);
+    }
+    
+    // Called from account deletion: rows go with the caller's transaction, files once it commits.
+    // A job still running finds its row gone when it completes and removes its own file.
+    @Transactional
+    public void deleteForUser(Long userId) {
+        List<Path> files = new ArrayList<>();
+        for (ExportJob job : exportJobRepository.findByUserId(userId)) {
+            if (job.getFilePath() != null) {
+                files.add(Paths.get(job.getFilePath()));
+            }
+        }
+        exportJobRepository.deleteByUserId(userId);
+        afterCommit(() -> files.forEach(this::deleteQuietly));
+    }
+    
+    public ExportJobResponse getStatus(Long jobId) {
+        return ExportJobResponse.fromEntity(findOwnJob(jobId));
+    }
+    
+    // The finished archive for the current user, or an error if it is not downloadable
+    public ExportFile getFile(Long jobId) {
+        ExportJob job = findOwnJob(jobId);
+        if (job.getStatus() != ExportJob.Status.COMPLETED) {
+            throw new RuntimeException("Export is not ready");
+        }
+        Path file = Paths.get(job.getFilePath());
+        if (job.getExpiresAt().isBefore(LocalDateTime.now()) || !Files.isRegularFile(file)) {
+            throw new RuntimeException("Export has expired");
+        }
+        // Identifies this exact file, so a resumed download never mixes bytes of two archives
+        String etag = "\"export-" + job.getId() + "-" + job.getFileSize() + "\"";
+        return new ExportFile(file, "dreamwell-export-" + job.getId() + ".zip", etag);
+    }
+    
+    // Hourly: delete expired archives and their rows, and fail jobs lost with a restart
+    @Scheduled(cron = "${export.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ExportJob job : exportJobRepository.findByStatusInAndCreatedAtBefore(ACTIVE, now.minus(Duration.ofMillis(staleAfterMs)))) {
+            fail(job.getId(), "Export was interrupted");
+        }
+        
+        int purged = 0;
+        for (ExportJob job : exportJobRepository.findByExpiresAtBefore(now)) {
+            try {
+                if (job.getFilePath() != null) {
+                    Files.deleteIfExists(Paths.get(job.getFilePath()));
+                }
+                exportJobRepository.deleteById(job.getId());
+                purged++;
+            } catch (IOException e) {
+                System.err.println("Failed to delete export " + job.getId() + ": " + e.getMessage());
+            }
+        }
+        if (purged > 0) {
+            System.out.println("Purged " + purged + " expired exports");
+        }
+    }
+    
+    private void run(Long jobId, Long userId, DataExportService.Format format) {
+        Path target = exportDirectory.resolve("export-" + jobId + ".zip");
+        Path partial = exportDirectory.resolve("export-" + jobId + ".zip.part");
+        ProgressTracker progress = new ProgressTracker(jobId);
+        try {
+            dataExportService.writeArchive(userId, format, partial, progress);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            LocalDateTime now = LocalDateTime.now();
+            int updated = exportJobRepository.markCompleted(jobId, ExportJob.Status.COMPLETED, progress.written,
+                target.toString(), Files.size(target), now, now.plusHours(ttlHours));
+            if (updated == 0) {
+                // The account was deleted while the archive was being written
+                deleteQuietly(target);
+            }
+        } catch (Exception e) {
+            System.err.println("Export " + jobId + " failed: " + e.getMessage());
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException ignored) {
+                // The purge cannot find it either; it is only a temp file
+            }
+            fail(jobId, "Export failed");
+        }
+    }
+    
+    // Failed jobs are kept for the TTL so the client can see what happened
+    private void fail(Long jobId, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        exportJobRepository.markFailed(jobId, ExportJob.Status.FAILED, error, now, now.plusHours(ttlHours));
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Failed to delete export file " + file + ": " + e.getMessage());
+        }
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    private ExportJob findOwnJob(Long jobId) {
+        return exportJobRepository.findByIdAndUserId(jobId, AuthenticatedUser.current().id())
+                .orElseThrow(() -> new RuntimeException("Export not found"));
+    }
+    
+    public record ExportFile(Path path, String fileName, String etag) {
+    }
+    
+    private final class ProgressTracker implements DataExportService.Progress {
+        
+        private final Long jobId;
+        private long written;
+        private long lastReportedAt;
+        
+        private ProgressTracker(Long jobId) {
+            this.jobId = jobId;
+        }
+        
+        @Override
+        public void started(long totalRecords) {
+            lastReportedAt = System.currentTimeMillis();
+            exportJobRepository.markStarted(jobId, ExportJob.Status.RUNNING, totalRecords, LocalDateTime.now());
+        }
+        
+        // Called per row; the row update happens at most once per progress interval
+        @Override
+        public void advanced(long recordsWritten) {
+            written = recordsWritten;
+            long now = System.currentTimeMillis();
+            if (now - lastReportedAt >= progressIntervalMs) {
+                lastReportedAt = now;
+                exportJobRepository.updateProgress(jobId, recordsWritten);
+            }
+        }
+    }
+}
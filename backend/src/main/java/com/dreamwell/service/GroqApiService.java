@@ -1,11 +1,24 @@
 package com.dreamwell.service;
 
+import com.dreamwell.dto.InterpretationResult;
+import com.dreamwell.exception.GroqApiException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -13,6 +26,10 @@ import java.util.Map;
 @Service
 public class GroqApiService {
     
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE = new ParameterizedTypeReference<>() {};
+    // Groq's JSON mode: the completion is guaranteed to be a single JSON object
+    private static final Map<String, String> JSON_MODE = Map.of("type", "json_object");
+    
     @Value("${groq.api.key}")
     private String apiKey;
     
@@ -22,24 +39,97 @@ public class GroqApiService {
     @Value("${groq.api.model}")
     private String model;
     
+    // Hard ceiling for one attempt, on top of the client's connect and per-read timeouts
+    @Value("${groq.api.timeout-ms:90000}")
+    private long requestTimeoutMs;
+    
+    // Extra Groq calls allowed to fix output that is still malformed after local repair
+    @Value("${groq.api.repair-attempts:1}")
+    private int repairAttempts;
+    
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
     
-    public GroqApiService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
-        this.webClient = webClientBuilder.build();
+    @Autowired
+    private InterpretationCacheService interpretationCache;
+    
+    @Autowired
+    private GroqResilience resilience;
+    
+    @Autowired
+    private InterpretationParser interpretationParser;
+    
+    @Autowired
+    private GroqSingleFlight singleFlight;
+    
+    public GroqApiService(@Qualifier("groqWebClient") WebClient webClient, ObjectMapper objectMapper) {
+        this.webClient = webClient;
         this.objectMapper = objectMapper;
     }
     
-    public Map<String, String> interpretDream(String dreamText, String mood, Integer sleepQuality) {
+    public InterpretationResult interpretDream(String dreamText, String mood, Integer sleepQuality) {
+        String cacheKey = interpretationCache.keyFor(dreamText, mood, sleepQuality, model);
+        InterpretationResult cached = interpretationCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        
         try {
-            String prompt = buildDreamInterpretationPrompt(dreamText, mood, sleepQuality);
-            String response = callGroqApi(prompt);
-            return parseDreamInterpretation(response);
+            return generateShared(cacheKey, buildDreamInterpretationPrompt(dreamText, mood, sleepQuality)).block();
+        } catch (GroqApiException e) {
+            // Keeps its status, so a shed call reaches the client as 503/429 rather than 400
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to interpret dream: " + e.getMessage(), e);
         }
     }
     
+    // Non-blocking variant: no thread waits on Groq. Cache reads and writes may hit the
+    // database, so they run on the bounded elastic scheduler rather than a Netty event loop.
+    public Mono<InterpretationResult> interpretDreamAsync(String dreamText, String mood, Integer sleepQuality) {
+        String cacheKey = interpretationCache.keyFor(dreamText, mood, sleepQuality, model);
+        return Mono.fromCallable(() -> interpretationCache.get(cacheKey))
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(Mono.defer(() -> generateShared(cacheKey, buildDreamInterpretationPrompt(dreamText, mood, sleepQuality))))
+                .onErrorMap(e -> !(e instanceof GroqApiException), e -> new RuntimeException("Failed to interpret dream: " + e.getMessage(), e));
+    }
+    
+    // Content deltas as Groq generates them; the caller assembles them and hands the
+    // full text to completeStreamedInterpretation. Cancelling the Flux closes the upstream stream.
+    public Flux<String> streamDreamInterpretation(String dreamText, String mood, Integer sleepQuality) {
+        // No JSON mode here: Groq does not combine it with streaming, so the parser tolerates fences instead
+        Map<String, Object> requestBody = buildRequestBody(List.of(userMessage(buildDreamInterpretationPrompt(dreamText, mood, sleepQuality))));
+        requestBody.put("stream", true);
+        
+        System.out.println("Streaming Groq API with model: " + model);
+        
+        return resilience.executeStream(() -> webClient.post()
+            .uri(apiUrl)
+            .header("Authorization", "Bearer " + apiKey)
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue(requestBody)
+            .retrieve()
+            .onStatus(
+                status -> status.is4xxClientError() || status.is5xxServerError(),
+                this::toGroqApiException
+            )
+            .bodyToFlux(SSE_TYPE)
+            .map(event -> event.data() == null ? "" : event.data())
+            .takeWhile(data -> !"[DONE]".equals(data.trim()))
+            .map(this::parseStreamDelta)
+            .filter(delta -> !delta.isEmpty()))
+            .doOnError(e -> System.err.println("Groq API stream error: " + e.getMessage()));
+    }
+    
+    // Blocks if the streamed text needs a corrective call; run it off the event loop
+    public InterpretationResult completeStreamedInterpretation(String dreamText, String mood, Integer sleepQuality, String content) {
+        String prompt = buildDreamInterpretationPrompt(dreamText, mood, sleepQuality);
+        InterpretationResult interpretation = parseOrRepair(prompt, content, repairAttempts).block();
+        interpretationCache.put(interpretationCache.keyFor(dreamText, mood, sleepQuality, model), model, interpretation);
+        return interpretation;
+    }
+    
     private String buildDreamInterpretationPrompt(String dreamText, String mood, Integer sleepQuality) {
         return String.format("""
             You are an expert dream interpreter and psychologist. Analyze the following dream and provide a structured interpretation.
@@ -63,83 +153,111 @@ public class GroqApiService {
             """, dreamText, mood, sleepQuality);
     }
     
-    private String callGroqApi(String prompt) {
+    // Concurrent callers with the same cache key (double clicks, client retries) share one
+    // Groq call; the result is cached before any of them sees it
+    private Mono<InterpretationResult> generateShared(String cacheKey, String prompt) {
+        return singleFlight.execute(cacheKey, () -> generate(prompt)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(interpretation -> interpretationCache.put(cacheKey, model, interpretation)));
+    }
+    
+    // One JSON-mode call, then the bounded repair path if the output does not parse
+    private Mono<InterpretationResult> generate(String prompt) {
+        Map<String, Object> requestBody = buildRequestBody(List.of(userMessage(prompt)));
+        requestBody.put("response_format", JSON_MODE);
+        return callGroqApi(requestBody)
+            .flatMap(response -> parseOrRepair(prompt, interpretationParser.extractContent(response), repairAttempts));
+    }
+    
+    // Local repair first; only if that fails is Groq asked again, at most attemptsLeft times
+    private Mono<InterpretationResult> parseOrRepair(String prompt, String content, int attemptsLeft) {
         try {
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", model);
-            requestBody.put("messages", List.of(
-                Map.of("role", "user", "content", prompt)
-            ));
-            requestBody.put("temperature", 0.7);
-            requestBody.put("max_tokens", 2000);
-            
-            System.out.println("Calling Groq API with model: " + model);
-            System.out.println("API URL: " + apiUrl);
-            
-            String response = webClient.post()
-                .uri(apiUrl)
-                .header("Authorization", "Bearer " + apiKey)
-                .header("Content-Type", "application/json")
-                .bodyValue(requestBody)
-                .retrieve()
-                .onStatus(
-                    status -> status.is4xxClientError() || status.is5xxServerError(),
-                    clientResponse -> clientResponse.bodyToMono(String.class)
-                        .map(errorBody -> {
-                            System.err.println("Groq API Error Response: " + errorBody);
-                            return new RuntimeException("Groq API Error: " + errorBody);
-                        })
-                )
-                .bodyToMono(String.class)
-                .block();
+            return Mono.just(parseWithLocalRepair(content));
+        } catch (InterpretationParser.MalformedInterpretationException e) {
+            if (attemptsLeft <= 0) {
+                return Mono.error(e);
+            }
+            System.err.println("Malformed interpretation from Groq, requesting a corrected one: " + e.getMessage());
             
-            return response;
-        } catch (Exception e) {
-            System.err.println("Groq API Error: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Groq API call failed: " + e.getMessage(), e);
+            Map<String, Object> requestBody = buildRequestBody(List.of(
+                userMessage(prompt),
+                Map.of("role", "assistant", "content", content == null ? "" : content),
+                userMessage("That response was not valid JSON (" + e.getMessage() + "). "
+                    + "Reply again with only the complete JSON object.")
+            ));
+            requestBody.put("response_format", JSON_MODE);
+            return callGroqApi(requestBody)
+                .flatMap(response -> parseOrRepair(prompt, interpretationParser.extractContent(response), attemptsLeft - 1));
         }
     }
     
-    private Map<String, String> parseDreamInterpretation(String apiResponse) {
+    private InterpretationResult parseWithLocalRepair(String content) {
         try {
-            JsonNode root = objectMapper.readTree(apiResponse);
-            String content = root.path("choices").get(0).path("message").path("content").asText();
-            
-            // Clean the content to extract JSON
-            content = content.trim();
-            if (content.startsWith("```json")) {
-                content = content.substring(7);
-            }
-            if (content.startsWith("```")) {
-                content = content.substring(3);
+            return interpretationParser.parse(content);
+        } catch (InterpretationParser.MalformedInterpretationException e) {
+            String repaired = interpretationParser.repair(content);
+            if (repaired == null || repaired.equals(content)) {
+                throw e;
             }
-            if (content.endsWith("```")) {
-                content = content.substring(0, content.length() - 3);
+            try {
+                return interpretationParser.parse(repaired);
+            } catch (InterpretationParser.MalformedInterpretationException ignored) {
+                throw e;
             }
-            content = content.trim();
-            
-            // Escape newlines and other control characters in string values
-            content = content.replaceAll("\\r\\n", " ")
-                           .replaceAll("\\n", " ")
-                           .replaceAll("\\r", " ")
-                           .replaceAll("\\t", " ");
-            
-            // Parse the JSON content
-            JsonNode interpretationNode = objectMapper.readTree(content);
-            
-            Map<String, String> interpretation = new HashMap<>();
-            interpretation.put("shortSummary", interpretationNode.path("shortSummary").asText());
-            interpretation.put("detailedExplanation", interpretationNode.path("detailedExplanation").asText());
-            interpretation.put("predictedEmotions", interpretationNode.path("predictedEmotions").asText());
-            interpretation.put("whyOccurred", interpretationNode.path("whyOccurred").asText());
-            interpretation.put("suggestedActions", interpretationNode.path("suggestedActions").asText());
-            interpretation.put("riskFlags", interpretationNode.path("riskFlags").asText());
-            interpretation.put("symbols", interpretationNode.path("symbols").asText());
-            
-            return interpretation;
+        }
+    }
+    
+    private Mono<String> callGroqApi(Map<String, Object> requestBody) {
+        System.out.println("Calling Groq API with model: " + model);
+        
+        return resilience.execute(() -> webClient.post()
+            .uri(apiUrl)
+            .header("Authorization", "Bearer " + apiKey)
+            .header("Content-Type", "application/json")
+            .bodyValue(requestBody)
+            .retrieve()
+            .onStatus(
+                status -> status.is4xxClientError() || status.is5xxServerError(),
+                this::toGroqApiException
+            )
+            .bodyToMono(String.class)
+            .timeout(Duration.ofMillis(requestTimeoutMs)))
+            .doOnError(e -> System.err.println("Groq API Error: " + e.getMessage()))
+            .onErrorMap(e -> !(e instanceof GroqApiException), e -> new RuntimeException("Groq API call failed: " + e.getMessage(), e));
+    }
+    
+    private Map<String, Object> buildRequestBody(List<Map<String, String>> messages) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", messages);
+        requestBody.put("temperature", 0.7);
+        requestBody.put("max_tokens", 2000);
+        return requestBody;
+    }
+    
+    private Map<String, String> userMessage(String content) {
+        return Map.of("role", "user", "content", content);
+    }
+    
+    private Mono<? extends Throwable> toGroqApiException(ClientResponse clientResponse) {
+        return clientResponse.bodyToMono(String.class)
+            .defaultIfEmpty("")
+            .map(errorBody -> {
+                System.err.println("Groq API Error Response: " + errorBody);
+                return new GroqApiException(
+                    clientResponse.statusCode().value(),
+                    clientResponse.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER),
+                    "Groq API Error: " + errorBody
+                );
+            });
+    }
+    
+    private String parseStreamDelta(String chunk) {
+        try {
+            JsonNode delta = objectMapper.readTree(chunk).path("choices").path(0).path("delta");
+            return delta.path("content").asText("");
         } catch (Exception e) {
-            throw new RuntimeException("Failed to parse Groq API response: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to parse Groq stream chunk: " + e.getMessage(), e);
         }
     }
 }
@@ -0,0 +1,42 @@
+package com.dreamwell.service;
+
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Receives the Groq connection pool's live gauges from Reactor Netty; one pool exists per remote address
+@Component
+public class GroqPoolMetrics implements ConnectionProvider.MeterRegistrar {
+    
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+    
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.put(poolName + " " + remoteAddress, metrics);
+    }
+    
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        pools.remove(poolName + " " + remoteAddress);
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        pools.forEach((name, metrics) -> {
+            Map<String, Object> pool = new HashMap<>();
+            pool.put("acquired", metrics.acquiredSize());
+            pool.put("allocated", metrics.allocatedSize());
+            pool.put("idle", metrics.idleSize());
+            pool.put("pendingAcquire", metrics.pendingAcquireSize());
+            pool.put("maxConnections", metrics.maxAllocatedSize());
+            pool.put("maxPendingAcquire", metrics.maxPendingAcquireSize());
+            stats.put(name, pool);
+        });
+        return stats;
+    }
+}
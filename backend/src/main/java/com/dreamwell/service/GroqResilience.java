@@ -0,0 +1,362 @@
+package com.dreamwell.service;
+
+import com.dreamwell.exception.GroqApiException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Guards every Groq call with, in order: a circuit breaker, a concurrency bulkhead, and
+// jittered retries paid for out of a global retry budget. Rejections fail immediately so
+// callers never queue behind a degraded Groq.
+@Component
+public class GroqResilience {
+    
+    private static final long BUDGET_UNIT = 1000;
+    
+    @Value("${groq.resilience.breaker.window-size:20}")
+    private int windowSize;
+    
+    @Value("${groq.resilience.breaker.minimum-calls:10}")
+    private int minimumCalls;
+    
+    @Value("${groq.resilience.breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+    
+    @Value("${groq.resilience.breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+    
+    @Value("${groq.resilience.breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+    
+    @Value("${groq.resilience.bulkhead.max-concurrent:20}")
+    private int maxConcurrent;
+    
+    @Value("${groq.resilience.retry.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${groq.resilience.retry.base-backoff-ms:500}")
+    private long baseBackoffMs;
+    
+    @Value("${groq.resilience.retry.max-backoff-ms:5000}")
+    private long maxBackoffMs;
+    
+    // A Retry-After longer than this is not worth waiting for; the call fails instead
+    @Value("${groq.resilience.retry.max-retry-after-ms:10000}")
+    private long maxRetryAfterMs;
+    
+    // Each call earns this fraction of a retry; the balance never exceeds budget-max retries
+    @Value("${groq.resilience.retry.budget-ratio:0.2}")
+    private double budgetRatio;
+    
+    @Value("${groq.resilience.retry.budget-max:10}")
+    private int budgetMax;
+    
+    private Semaphore bulkhead;
+    private AtomicLong retryBudget;
+    
+    // Sliding window of the last windowSize outcomes, guarded by this
+    private boolean[] outcomes;
+    private int outcomeIndex;
+    private int outcomeCount;
+    private int failureCount;
+    private BreakerState state = BreakerState.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+    
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong breakerRejections = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+    private final AtomicLong breakerOpenings = new AtomicLong();
+    
+    public enum BreakerState {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    @PostConstruct
+    public void init() {
+        bulkhead = new Semaphore(maxConcurrent);
+        retryBudget = new AtomicLong(budgetMax * BUDGET_UNIT);
+        outcomes = new boolean[windowSize];
+    }
+    
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            retryBudget.updateAndGet(balance -> Math.min(budgetMax * BUDGET_UNIT, balance + (long) (budgetRatio * BUDGET_UNIT)));
+            return attempt(call, 1);
+        });
+    }
+    
+    // Streams are never retried: tokens may already have reached the client. The breaker
+    // and bulkhead still apply, and the bulkhead slot is held until the stream ends.
+    public <T> Flux<T> executeStream(Supplier<Flux<T>> call) {
+        return Flux.defer(() -> {
+            Throwable rejection = acquire();
+            if (rejection != null) {
+                return Flux.error(rejection);
+            }
+            
+            Runnable release = releaseOnce();
+            return call.get()
+                    .doOnTerminate(release)
+                    .doOnCancel(() -> {
+                        release.run();
+                        releasePermission();
+                    })
+                    .doOnComplete(() -> recordOutcome(true))
+                    .doOnError(this::recordFailure);
+        });
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (this) {
+            stats.put("breakerState", currentState().name());
+            stats.put("windowCalls", outcomeCount);
+            stats.put("windowFailures", failureCount);
+        }
+        stats.put("breakerOpenings", breakerOpenings.get());
+        stats.put("breakerRejections", breakerRejections.get());
+        stats.put("bulkheadRejections", bulkheadRejections.get());
+        stats.put("bulkheadAvailable", bulkhead.availablePermits());
+        stats.put("bulkheadMax", maxConcurrent);
+        stats.put("successes", successes.get());
+        stats.put("failures", failures.get());
+        stats.put("retries", retries.get());
+        stats.put("retryBudgetExhausted", budgetExhausted.get());
+        stats.put("retryBudgetAvailable", retryBudget.get() / (double) BUDGET_UNIT);
+        return stats;
+    }
+    
+    private <T> Mono<T> attempt(Supplier<Mono<T>> call, int attemptNumber) {
+        Throwable rejection = acquire();
+        if (rejection != null) {
+            return Mono.error(rejection);
+        }
+        
+        Runnable release = releaseOnce();
+        
+        return call.get()
+                .doOnTerminate(release)
+                .doOnCancel(() -> {
+                    release.run();
+                    releasePermission();
+                })
+                .doOnSuccess(result -> recordOutcome(true))
+                .onErrorResume(e -> {
+                    boolean transientFailure = isTransient(e);
+                    recordFailure(e);
+                    if (!transientFailure || attemptNumber >= maxAttempts) {
+                        return Mono.error(e);
+                    }
+                    
+                    long delayMs = backoffMs(attemptNumber);
+                    Long retryAfterMs = retryAfterMs(e);
+                    if (retryAfterMs != null) {
+                        if (retryAfterMs > maxRetryAfterMs) {
+                            return Mono.error(e);
+                        }
+                        delayMs = Math.max(delayMs, retryAfterMs);
+                    }
+                    if (!tryWithdrawRetry()) {
+                        budgetExhausted.incrementAndGet();
+                        return Mono.error(e);
+                    }
+                    
+                    retries.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(delayMs))
+                            .then(Mono.defer(() -> attempt(call, attemptNumber + 1)));
+                });
+    }
+    
+    // Breaker first, then bulkhead; returns the rejection to fail with, or null when admitted
+    private Throwable acquire() {
+        if (!tryAcquirePermission()) {
+            breakerRejections.incrementAndGet();
+            return new GroqApiException(503, String.valueOf(secondsUntilHalfOpen()),
+                "Interpretation service is temporarily unavailable, please try again later");
+        }
+        if (!bulkhead.tryAcquire()) {
+            releasePermission();
+            bulkheadRejections.incrementAndGet();
+            return new GroqApiException(503, "1",
+                "Interpretation service is busy, please try again later");
+        }
+        return null;
+    }
+    
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        };
+    }
+    
+    // 429, 5xx, timeouts and connection failures are worth retrying and count against the breaker
+    private boolean isTransient(Throwable e) {
+        if (e instanceof GroqApiException groqError) {
+            int status = groqError.getStatus();
+            return status == 429 || status >= 500;
+        }
+        return e instanceof TimeoutException
+                || e instanceof io.netty.handler.timeout.TimeoutException
+                || e instanceof WebClientRequestException
+                || e instanceof IOException;
+    }
+    
+    // Full jitter: uniform between zero and the capped exponential step
+    private long backoffMs(int attemptNumber) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attemptNumber - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+    
+    // Retry-After is either delta-seconds or an HTTP date
+    private Long retryAfterMs(Throwable error) {
+        if (!(error instanceof GroqApiException groqError) || groqError.getRetryAfter() == null) {
+            return null;
+        }
+        String retryAfter = groqError.getRetryAfter().trim();
+        try {
+            return Math.max(0, Long.parseLong(retryAfter)) * 1000;
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+    
+    private boolean tryWithdrawRetry() {
+        while (true) {
+            long balance = retryBudget.get();
+            if (balance < BUDGET_UNIT) {
+                return false;
+            }
+            if (retryBudget.compareAndSet(balance, balance - BUDGET_UNIT)) {
+                return true;
+            }
+        }
+    }
+    
+    private synchronized boolean tryAcquirePermission() {
+        BreakerState current = currentState();
+        if (current == BreakerState.CLOSED) {
+            return true;
+        }
+        if (current == BreakerState.HALF_OPEN && halfOpenInFlight < halfOpenCalls) {
+            halfOpenInFlight++;
+            return true;
+        }
+        return false;
+    }
+    
+    private synchronized void releasePermission() {
+        if (state == BreakerState.HALF_OPEN && halfOpenInFlight > 0) {
+            halfOpenInFlight--;
+        }
+    }
+    
+    // Bad requests and auth errors say nothing about Groq's health: they count neither way
+    // in the window, and a half-open probe that ends with one only gives its slot back
+    private void recordFailure(Throwable e) {
+        if (isTransient(e)) {
+            recordOutcome(false);
+        } else {
+            failures.incrementAndGet();
+            releasePermission();
+        }
+    }
+    
+    private synchronized long secondsUntilHalfOpen() {
+        long remainingMs = openedAt + openDurationMs - System.currentTimeMillis();
+        return Math.max(1, (remainingMs + 999) / 1000);
+    }
+    
+    private synchronized void recordOutcome(boolean success) {
+        if (success) {
+            successes.incrementAndGet();
+        } else {
+            failures.incrementAndGet();
+        }
+        
+        if (state == BreakerState.HALF_OPEN) {
+            halfOpenInFlight = Math.max(0, halfOpenInFlight - 1);
+            if (!success) {
+                open();
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == BreakerState.OPEN) {
+            // A call admitted before the breaker opened; the window restarts on close
+            return;
+        }
+        
+        if (outcomeCount == windowSize) {
+            if (!outcomes[outcomeIndex]) {
+                failureCount--;
+            }
+        } else {
+            outcomeCount++;
+        }
+        outcomes[outcomeIndex] = success;
+        if (!success) {
+            failureCount++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % windowSize;
+        
+        if (outcomeCount >= minimumCalls && failureCount * 100 >= failureRateThreshold * outcomeCount) {
+            open();
+        }
+    }
+    
+    // OPEN turns into HALF_OPEN lazily once the open duration has passed
+    private BreakerState currentState() {
+        if (state == BreakerState.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+            state = BreakerState.HALF_OPEN;
+            halfOpenInFlight = 0;
+            halfOpenSuccesses = 0;
+        }
+        return state;
+    }
+    
+    private void open() {
+        state = BreakerState.OPEN;
+        openedAt = System.currentTimeMillis();
+        breakerOpenings.incrementAndGet();
+        System.err.println("Groq circuit breaker opened");
+    }
+    
+    private void close() {
+        state = BreakerState.CLOSED;
+        outcomeIndex = 0;
+        outcomeCount = 0;
+        failureCount = 0;
+        System.out.println("Groq circuit breaker closed");
+    }
+}
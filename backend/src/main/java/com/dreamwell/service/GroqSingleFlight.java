@@ -0,0 +1,73 @@
+package com.dreamwell.service;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Collapses concurrent identical Groq calls: the first caller for a key starts the upstream
+// call and later callers with the same key join it until it finishes. Every caller gets the
+// same value or the same error. A caller that cancels only leaves the flight; the upstream
+// call is cancelled once no caller is waiting for it.
+@Component
+public class GroqSingleFlight {
+    
+    private final Map<String, Flight<?>> inFlight = new ConcurrentHashMap<>();
+    
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(String key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            Flight<T> flight = new Flight<>(key, call);
+            Flight<T> existing = (Flight<T>) inFlight.putIfAbsent(key, flight);
+            if (existing != null) {
+                collapsed.incrementAndGet();
+                return existing.result;
+            }
+            leaders.incrementAndGet();
+            return flight.result;
+        });
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("inFlight", inFlight.size());
+        stats.put("upstreamCalls", leaders.get());
+        stats.put("collapsedCalls", collapsed.get());
+        stats.put("upstreamFailures", failures.get());
+        stats.put("abandonedCalls", abandoned.get());
+        return stats;
+    }
+    
+    private final class Flight<T> {
+        
+        private final Mono<T> result;
+        
+        private Flight(String key, Supplier<Mono<T>> call) {
+            // refCount(1): connect on the first subscriber, cancel upstream when the last one leaves.
+            // The entry is removed on any terminal signal so a later caller starts a fresh call.
+            this.result = Mono.defer(call)
+                    .doFinally(signal -> {
+                        inFlight.remove(key, this);
+                        if (signal == SignalType.ON_ERROR) {
+                            failures.incrementAndGet();
+                        } else if (signal == SignalType.CANCEL) {
+                            abandoned.incrementAndGet();
+                        }
+                    })
+                    .flux()
+                    .publish()
+                    .refCount(1)
+                    .singleOrEmpty();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.dreamwell.service;
+
+import com.dreamwell.entity.IdempotencyRecord;
+import com.dreamwell.exception.IdempotencyException;
+import com.dreamwell.repository.IdempotencyRecordRepository;
+import com.dreamwell.security.AuthenticatedUser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Idempotency-Key support for unsafe endpoints. The first request with a key claims it and
+// runs; its successful response is stored and replayed to every retry until the key expires.
+// A duplicate that arrives while the first is still running waits for it instead of racing it.
+@Service
+public class IdempotencyService {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    @Autowired
+    private IdempotencyRecordRepository repository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+    
+    // How long a duplicate waits for the original before giving up with 409
+    @Value("${idempotency.wait-timeout-ms:120000}")
+    private long waitTimeoutMs;
+    
+    // How often a duplicate re-reads the key when the original runs on another instance
+    @Value("${idempotency.poll-interval-ms:250}")
+    private long pollIntervalMs;
+    
+    // An IN_PROGRESS claim older than this belongs to a crashed request and is taken over
+    @Value("${idempotency.stale-after-ms:300000}")
+    private long staleAfterMs;
+    
+    // Completes when a request running on this instance finishes, so local duplicates wake at once
+    private final Map<String, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+    
+    public <T> ResponseEntity<?> execute(String key, String operation, Object requestBody, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Invalid " + HEADER + " header");
+        }
+        
+        Long userId = AuthenticatedUser.current().id();
+        String fingerprint = fingerprint(operation, requestBody);
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            if (repository.claim(userId, key, fingerprint, now, now.plusHours(ttlHours)) == 1) {
+                return runAndRecord(userId, key, action);
+            }
+            
+            Optional<IdempotencyRecord> existing = repository.findByUserIdAndIdempotencyKey(userId, key);
+            if (existing.isEmpty()) {
+                // The original failed and released the key; claim it again
+                continue;
+            }
+            
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isBefore(now)) {
+                repository.deleteRecord(record.getId());
+                continue;
+            }
+            if (!record.getFingerprint().equals(fingerprint)) {
+                throw new IdempotencyException(HttpStatus.UNPROCESSABLE_ENTITY,
+                        HEADER + " was already used for a different request");
+            }
+            if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                return replay(record);
+            }
+            if (record.getCreatedAt().isBefore(now.minus(Duration.ofMillis(staleAfterMs)))) {
+                repository.deleteRecord(record.getId());
+                continue;
+            }
+            
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new IdempotencyException(HttpStatus.CONFLICT,
+                        "A request with this " + HEADER + " is still in progress");
+            }
+            awaitOriginal(userId, key, remaining);
+        }
+    }
+    
+    // Hourly purge of expired keys
+    @Scheduled(cron = "${idempotency.purge-cron:0 45 * * * *}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            System.out.println("Purged " + purged + " expired idempotency keys");
+        }
+    }
+    
+    private <T> ResponseEntity<?> runAndRecord(Long userId, String key, Supplier<ResponseEntity<T>> action) {
+        String runningKey = userId + ":" + key;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        running.put(runningKey, done);
+        try {
+            ResponseEntity<T> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                repository.release(userId, key, IdempotencyRecord.Status.IN_PROGRESS);
+                throw e;
+            }
+            
+            // Only successes are stored; anything else leaves the key free for a retry
+            if (response.getStatusCode().is2xxSuccessful()) {
+                try {
+                    String body = objectMapper.writeValueAsString(response.getBody());
+                    repository.complete(userId, key, IdempotencyRecord.Status.COMPLETED, response.getStatusCode().value(), body);
+                } catch (JsonProcessingException e) {
+                    System.err.println("Failed to store idempotent response: " + e.getMessage());
+                    repository.release(userId, key, IdempotencyRecord.Status.IN_PROGRESS);
+                }
+            } else {
+                repository.release(userId, key, IdempotencyRecord.Status.IN_PROGRESS);
+            }
+            return response;
+        } finally {
+            running.remove(runningKey, done);
+            done.complete(null);
+        }
+    }
+    
+    private void awaitOriginal(Long userId, String key, long waitMs) {
+        CompletableFuture<Void> done = running.get(userId + ":" + key);
+        try {
+            if (done != null) {
+                done.get(waitMs, TimeUnit.MILLISECONDS);
+            } else {
+                Thread.sleep(Math.min(waitMs, pollIntervalMs));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        } catch (ExecutionException | TimeoutException e) {
+            // Re-read the key either way
+        }
+    }
+    
+    private ResponseEntity<String> replay(IdempotencyRecord record) {
+        return ResponseEntity.status(record.getResponseStatus())
+                .header(REPLAYED_HEADER, "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(record.getResponseBody());
+    }
+    
+    private String fingerprint(String operation, Object requestBody) {
+        try {
+            String body = requestBody == null ? "" : objectMapper.writeValueAsString(requestBody);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid request body");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.dreamwell.service;
+
+import com.dreamwell.dto.InterpretationResult;
+import com.dreamwell.entity.InterpretationCacheEntry;
+import com.dreamwell.repository.InterpretationCacheRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class InterpretationCacheService {
+    
+    @Autowired
+    private InterpretationCacheRepository cacheRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${interpretation.cache.max-size:1000}")
+    private int maxSize;
+    
+    @Value("${interpretation.cache.ttl-minutes:1440}")
+    private long ttlMinutes;
+    
+    @Value("${interpretation.cache.persistent:true}")
+    private boolean persistent;
+    
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    
+    // Access-ordered LinkedHashMap gives LRU order; guarded by its own monitor
+    private final LinkedHashMap<String, CachedInterpretation> memoryCache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedInterpretation> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    
+    public String keyFor(String dreamText, String mood, Integer sleepQuality, String model) {
+        String normalized = normalize(dreamText) + '\u0000' + mood + '\u0000' + sleepQuality + '\u0000' + model;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    public InterpretationResult get(String cacheKey) {
+        InterpretationResult cached = getFromMemory(cacheKey);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            return cached;
+        }
+        
+        if (persistent) {
+            InterpretationCacheEntry entry = cacheRepository.findByCacheKey(cacheKey, LocalDateTime.now()).orElse(null);
+            InterpretationResult stored = entry != null ? readPayload(entry) : null;
+            if (stored != null) {
+                persistentHits.incrementAndGet();
+                // Only for what is left of the stored entry's lifetime, so a hit never extends it
+                long expiresAt = entry.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                putInMemory(cacheKey, stored, expiresAt);
+                return stored;
+            }
+        }
+        
+        misses.incrementAndGet();
+        return null;
+    }
+    
+    // Records are immutable, so the same instance is shared by every cache hit
+    public void put(String cacheKey, String model, InterpretationResult interpretation) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(ttlMinutes);
+        putInMemory(cacheKey, interpretation, expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        
+        if (persistent) {
+            try {
+                // A live row stored first by another request is kept as is
+                cacheRepository.upsert(cacheKey, model, objectMapper.writeValueAsString(interpretation), now, expiresAt);
+            } catch (Exception e) {
+                System.err.println("Failed to persist interpretation cache entry: " + e.getMessage());
+            }
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (memoryCache) {
+            stats.put("memorySize", memoryCache.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("ttlMinutes", ttlMinutes);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("persistentHits", persistentHits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        if (persistent) {
+            stats.put("persistentSize", cacheRepository.count());
+        }
+        return stats;
+    }
+    
+    // Both tiers honour ttl-minutes; expired rows are filtered on read and deleted here
+    @Scheduled(cron = "${interpretation.cache.purge-cron:0 30 * * * *}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        int purged = cacheRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            System.out.println("Purged " + purged + " expired interpretation cache entries");
+        }
+    }
+    
+    public int purge() {
+        synchronized (memoryCache) {
+            memoryCache.clear();
+        }
+        return persistent ? cacheRepository.purge() : 0;
+    }
+    
+    private InterpretationResult getFromMemory(String cacheKey) {
+        synchronized (memoryCache) {
+            CachedInterpretation cached = memoryCache.get(cacheKey);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt() < System.currentTimeMillis()) {
+                memoryCache.remove(cacheKey);
+                expirations.incrementAndGet();
+                return null;
+            }
+            return cached.value();
+        }
+    }
+    
+    private void putInMemory(String cacheKey, InterpretationResult value, long expiresAt) {
+        synchronized (memoryCache) {
+            memoryCache.put(cacheKey, new CachedInterpretation(value, expiresAt));
+        }
+    }
+    
+    private InterpretationResult readPayload(InterpretationCacheEntry entry) {
+        try {
+            return objectMapper.readValue(entry.getPayload(), InterpretationResult.class);
+        } catch (Exception e) {
+            System.err.println("Discarding unreadable interpretation cache entry " + entry.getId());
+            return null;
+        }
+    }
+    
+    // Whitespace differences should not produce a different key
+    private String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ");
+    }
+    
+    private record CachedInterpretation(InterpretationResult value, long expiresAt) {
+    }
+}
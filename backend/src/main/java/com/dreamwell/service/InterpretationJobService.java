@@ -0,0 +1,115 @@
+package com.dreamwell.service;
+
+import com.dreamwell.dto.DreamInterpretationDTO;
+import com.dreamwell.dto.InterpretationResult;
+import com.dreamwell.dto.InterpretationStatusResponse;
+import com.dreamwell.entity.Dream;
+import com.dreamwell.entity.DreamInterpretation;
+import com.dreamwell.repository.DreamInterpretationRepository;
+import com.dreamwell.repository.DreamRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+@Service
+public class InterpretationJobService {
+    
+    @Autowired
+    private DreamRepository dreamRepository;
+    
+    @Autowired
+    private DreamInterpretationRepository interpretationRepository;
+    
+    @Autowired
+    private InterpretationWriter interpretationWriter;
+    
+    @Autowired
+    private GroqApiService groqApiService;
+    
+    @Autowired
+    private InterpretationNotifier notifier;
+    
+    @Autowired
+    @Qualifier("interpretationExecutor")
+    private TaskExecutor interpretationExecutor;
+    
+    // Queue the Groq call once the dream row is committed, so the worker can always see it
+    public void submitAfterCommit(Long dreamId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(dreamId);
+                }
+            });
+        } else {
+            submit(dreamId);
+        }
+    }
+    
+    public InterpretationStatusResponse getStatus(Dream dream) {
+        Dream.InterpretationStatus status = dream.getInterpretationStatus() != null
+                ? dream.getInterpretationStatus()
+                : Dream.InterpretationStatus.COMPLETED;
+        
+        InterpretationStatusResponse response = new InterpretationStatusResponse(
+            dream.getId(), status.name(), dream.getInterpretationError(), null
+        );
+        if (status == Dream.InterpretationStatus.COMPLETED) {
+            interpretationRepository.findByDream(dream).ifPresent(interpretation ->
+                response.setInterpretation(DreamInterpretationDTO.fromEntity(interpretation))
+            );
+        }
+        return response;
+    }
+    
+    private void submit(Long dreamId) {
+        try {
+            interpretationExecutor.execute(() -> process(dreamId));
+        } catch (TaskRejectedException e) {
+            System.err.println("Interpretation queue full, rejecting dream " + dreamId);
+            fail(dreamId, "Interpretation service is busy, please try reinterpreting later");
+        }
+    }
+    
+    private void process(Long dreamId) {
+        // Plain repository read: the connection goes back to the pool before Groq is called
+        Dream dream = dreamRepository.findById(dreamId).orElse(null);
+        if (dream == null) {
+            // Deleted before the worker picked it up
+            return;
+        }
+        
+        try {
+            InterpretationResult interpretation = groqApiService.interpretDream(
+                dream.getDreamText(),
+                dream.getMoodAtWake().name(),
+                dream.getSleepQuality()
+            );
+            
+            DreamInterpretation dreamInterpretation = interpretationWriter.saveInterpretation(dreamId, interpretation);
+            
+            notifier.publish(new InterpretationStatusResponse(
+                dreamId,
+                Dream.InterpretationStatus.COMPLETED.name(),
+                null,
+                DreamInterpretationDTO.fromEntity(dreamInterpretation)
+            ));
+        } catch (Exception e) {
+            System.err.println("Interpretation failed for dream " + dreamId + ": " + e.getMessage());
+            fail(dreamId, e.getMessage());
+        }
+    }
+    
+    private void fail(Long dreamId, String error) {
+        interpretationWriter.markFailed(dreamId, error);
+        notifier.publish(new InterpretationStatusResponse(
+            dreamId, Dream.InterpretationStatus.FAILED.name(), error, null
+        ));
+    }
+}
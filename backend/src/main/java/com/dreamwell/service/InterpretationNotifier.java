@@ -0,0 +1,61 @@
+package com.dreamwell.service;
+
+import com.dreamwell.dto.InterpretationStatusResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Service
+public class InterpretationNotifier {
+    
+    private static final long EMITTER_TIMEOUT_MS = 120_000L;
+    
+    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    
+    public SseEmitter subscribe(Long dreamId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitters.computeIfAbsent(dreamId, k -> new CopyOnWriteArrayList<>()).add(emitter);
+        
+        emitter.onCompletion(() -> remove(dreamId, emitter));
+        emitter.onTimeout(() -> remove(dreamId, emitter));
+        emitter.onError(e -> remove(dreamId, emitter));
+        
+        return emitter;
+    }
+    
+    // For emitters that are never handed to Spring MVC, whose completion callbacks therefore never run
+    public void unsubscribe(Long dreamId, SseEmitter emitter) {
+        remove(dreamId, emitter);
+    }
+    
+    // Sends the final state to everyone waiting on this dream and closes their streams
+    public void publish(InterpretationStatusResponse status) {
+        List<SseEmitter> subscribers = emitters.remove(status.getDreamId());
+        if (subscribers == null) {
+            return;
+        }
+        
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(status.getStatus().toLowerCase())
+                        .data(status));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+    
+    private void remove(Long dreamId, SseEmitter emitter) {
+        emitters.computeIfPresent(dreamId, (id, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
@@ -0,0 +1,205 @@
+package com.dreamwell.service;
+
+import com.dreamwell.dto.InterpretationResult;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Token-level parsing of Groq output straight into InterpretationResult, without building
+// JsonNode trees or intermediate maps. Raw control characters inside strings are accepted
+// as-is, so newlines the model writes into a field survive.
+@Component
+public class InterpretationParser {
+    
+    private final JsonFactory jsonFactory = JsonFactory.builder()
+            .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .build();
+    
+    // Thrown when the model output cannot be turned into an interpretation; the caller may repair and retry
+    public static class MalformedInterpretationException extends RuntimeException {
+        public MalformedInterpretationException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+    
+    // choices[0].message.content of a chat completion response
+    public String extractContent(String apiResponse) {
+        try (JsonParser parser = jsonFactory.createParser(apiResponse)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Response is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("choices".equals(field) && parser.currentToken() == JsonToken.START_ARRAY) {
+                    if (parser.nextToken() == JsonToken.START_OBJECT) {
+                        String content = readMessageContent(parser);
+                        if (content != null) {
+                            return content;
+                        }
+                    }
+                    break;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse Groq API response: " + e.getMessage(), e);
+        }
+        throw new RuntimeException("Failed to parse Groq API response: no message content");
+    }
+    
+    public InterpretationResult parse(String content) {
+        // JSON mode should return a bare object, but tolerate prose or ``` fences around it
+        int start = content == null ? -1 : content.indexOf('{');
+        int end = content == null ? -1 : content.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            throw new MalformedInterpretationException("Interpretation is not a JSON object", null);
+        }
+        
+        String shortSummary = "";
+        String detailedExplanation = "";
+        String predictedEmotions = "";
+        String whyOccurred = "";
+        String suggestedActions = "";
+        String riskFlags = "";
+        String symbols = "";
+        
+        try (JsonParser parser = jsonFactory.createParser(content.toCharArray(), start, end - start + 1)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                String value = readText(parser);
+                switch (field) {
+                    case "shortSummary" -> shortSummary = value;
+                    case "detailedExplanation" -> detailedExplanation = value;
+                    case "predictedEmotions" -> predictedEmotions = value;
+                    case "whyOccurred" -> whyOccurred = value;
+                    case "suggestedActions" -> suggestedActions = value;
+                    case "riskFlags" -> riskFlags = value;
+                    case "symbols" -> symbols = value;
+                    default -> { }
+                }
+            }
+        } catch (IOException e) {
+            throw new MalformedInterpretationException("Malformed interpretation JSON: " + e.getMessage(), e);
+        }
+        
+        if (shortSummary.isBlank() || detailedExplanation.isBlank()) {
+            throw new MalformedInterpretationException("Interpretation is missing its summary or explanation", null);
+        }
+        if (riskFlags.isBlank()) {
+            riskFlags = "none";
+        }
+        return new InterpretationResult(shortSummary, detailedExplanation, predictedEmotions,
+                whyOccurred, suggestedActions, riskFlags, symbols);
+    }
+    
+    // Cheap local fix for the usual failure, output cut off by max_tokens: close any open
+    // string, drop a dangling comma or colon, and close open arrays and objects
+    public String repair(String content) {
+        if (content == null) {
+            return null;
+        }
+        int start = content.indexOf('{');
+        if (start < 0) {
+            return null;
+        }
+        
+        StringBuilder repaired = new StringBuilder(content.length() + 8);
+        Deque<Character> closers = new ArrayDeque<>();
+        boolean inString = false;
+        boolean escaped = false;
+        for (int i = start; i < content.length(); i++) {
+            char c = content.charAt(i);
+            repaired.append(c);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
+                closers.push('}');
+            } else if (c == '[') {
+                closers.push(']');
+            } else if ((c == '}' || c == ']') && !closers.isEmpty()) {
+                closers.pop();
+                if (closers.isEmpty()) {
+                    return repaired.toString();
+                }
+            }
+        }
+        
+        if (escaped) {
+            repaired.setLength(repaired.length() - 1);
+        }
+        if (inString) {
+            repaired.append('"');
+        }
+        int last = repaired.length() - 1;
+        while (last >= 0 && (Character.isWhitespace(repaired.charAt(last)) || repaired.charAt(last) == ',' || repaired.charAt(last) == ':')) {
+            last--;
+        }
+        repaired.setLength(last + 1);
+        while (!closers.isEmpty()) {
+            repaired.append(closers.pop());
+        }
+        return repaired.toString();
+    }
+    
+    private String readMessageContent(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("message".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String messageField = parser.currentName();
+                    parser.nextToken();
+                    if ("content".equals(messageField) && parser.currentToken() == JsonToken.VALUE_STRING) {
+                        return parser.getText();
+                    }
+                    parser.skipChildren();
+                }
+                return null;
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+    
+    // Strings as-is; arrays (a common deviation for list fields) joined with ", "; anything else skipped
+    private String readText(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_ARRAY) {
+            StringBuilder joined = new StringBuilder();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken().isScalarValue()) {
+                    if (!joined.isEmpty()) {
+                        joined.append(", ");
+                    }
+                    joined.append(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return joined.toString();
+        }
+        if (token != null && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return "";
+    }
+}
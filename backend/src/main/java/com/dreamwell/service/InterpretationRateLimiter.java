@@ -0,0 +1,202 @@
+package com.dreamwell.service;
+
+import com.dreamwell.dto.InterpretationUsage;
+import com.dreamwell.entity.InterpretationLimit;
+import com.dreamwell.exception.RateLimitExceededException;
+import com.dreamwell.repository.InterpretationLimitRepository;
+import com.dreamwell.security.AuthenticatedUser;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user limits on interpretation requests: a token bucket for bursts and a daily quota.
+// The bucket is kept as a theoretical arrival time (GCRA), so each user's state is two
+// AtomicLongs updated by CAS, with no locks on the request path. In database mode the same
+// check runs as a single conditional upsert so every node sees the same counters.
+@Service
+public class InterpretationRateLimiter {
+    
+    private static final long DAY_SHIFT = 32;
+    private static final long USED_MASK = 0xFFFFFFFFL;
+    
+    @Autowired
+    private InterpretationLimitRepository limitRepository;
+    
+    @Value("${interpretation.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    // memory (single node) or database (shared across nodes)
+    @Value("${interpretation.rate-limit.mode:memory}")
+    private String mode;
+    
+    @Value("${interpretation.rate-limit.capacity:5}")
+    private int capacity;
+    
+    @Value("${interpretation.rate-limit.refill-per-minute:2}")
+    private double refillPerMinute;
+    
+    // 0 disables the daily quota
+    @Value("${interpretation.rate-limit.daily-quota:50}")
+    private int dailyQuota;
+    
+    private long intervalMs;
+    private long toleranceMs;
+    private boolean databaseMode;
+    
+    // ConcurrentHashMap bins stripe the map itself; per-user state is CAS-only
+    private final Map<Long, UserLimit> limits = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    void init() {
+        intervalMs = Math.max(1, Math.round(60_000 / refillPerMinute));
+        toleranceMs = intervalMs * (Math.max(capacity, 1) - 1);
+        databaseMode = "database".equalsIgnoreCase(mode);
+    }
+    
+    // Throws RateLimitExceededException when the current user may not start another interpretation
+    public void acquire() {
+        if (!enabled) {
+            return;
+        }
+        Long userId = AuthenticatedUser.current().id();
+        long now = System.currentTimeMillis();
+        long today = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+        
+        if (databaseMode) {
+            acquireShared(userId, now, today);
+        } else {
+            acquireLocal(userId, now, today);
+        }
+    }
+    
+    public InterpretationUsage getUsage(Long userId) {
+        long now = System.currentTimeMillis();
+        long today = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+        
+        long tat = 0;
+        int used = 0;
+        if (databaseMode) {
+            InterpretationLimit limit = limitRepository.findById(userId).orElse(null);
+            if (limit != null) {
+                tat = limit.getTatMs();
+                used = limit.getQuotaDay() == today ? limit.getQuotaUsed() : 0;
+            }
+        } else {
+            UserLimit limit = limits.get(userId);
+            if (limit != null) {
+                tat = limit.tat.get();
+                used = usedOn(limit.quota.get(), today);
+            }
+        }
+        
+        long backlog = Math.max(tat - now, 0);
+        int burstAvailable = (int) Math.max(0, Math.min(capacity, (toleranceMs + intervalMs - backlog) / intervalMs));
+        Integer quota = dailyQuota > 0 ? dailyQuota : null;
+        Integer remaining = dailyQuota > 0 ? Math.max(dailyQuota - used, 0) : null;
+        LocalDateTime resetsAt = LocalDate.ofEpochDay(today + 1).atStartOfDay();
+        return new InterpretationUsage(used, quota, remaining, burstAvailable, resetsAt);
+    }
+    
+    // Buckets that are full again and hold no count for today carry no information
+    @Scheduled(fixedDelayString = "${interpretation.rate-limit.cleanup-ms:600000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        long today = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+        // A request racing with removal may go uncounted once; that leniency is acceptable
+        limits.values().removeIf(limit -> limit.tat.get() <= now && usedOn(limit.quota.get(), today) == 0);
+    }
+    
+    private void acquireLocal(Long userId, long now, long today) {
+        UserLimit limit = limits.computeIfAbsent(userId, id -> new UserLimit());
+        
+        // Daily quota first: day and count packed into one long so a day rollover resets atomically
+        if (dailyQuota > 0) {
+            while (true) {
+                long state = limit.quota.get();
+                int used = usedOn(state, today);
+                if (used >= dailyQuota) {
+                    throw quotaExceeded(now, today);
+                }
+                if (limit.quota.compareAndSet(state, (today << DAY_SHIFT) | (used + 1))) {
+                    break;
+                }
+            }
+        }
+        
+        while (true) {
+            long tat = limit.tat.get();
+            long start = Math.max(tat, now);
+            long wait = start - now - toleranceMs;
+            if (wait > 0) {
+                refundQuota(limit, today);
+                throw rateLimited(wait);
+            }
+            if (limit.tat.compareAndSet(tat, start + intervalMs)) {
+                return;
+            }
+        }
+    }
+    
+    private void acquireShared(Long userId, long now, long today) {
+        int quota = dailyQuota > 0 ? dailyQuota : Integer.MAX_VALUE;
+        if (limitRepository.tryAcquire(userId, now, intervalMs, toleranceMs, today, quota) == 1) {
+            return;
+        }
+        
+        // Refused: read the row back only to say which limit applied
+        InterpretationLimit limit = limitRepository.findById(userId).orElse(null);
+        if (limit != null && limit.getQuotaDay() == today && limit.getQuotaUsed() >= quota) {
+            throw quotaExceeded(now, today);
+        }
+        long wait = limit == null ? intervalMs : Math.max(limit.getTatMs(), now) - now - toleranceMs;
+        throw rateLimited(wait);
+    }
+    
+    private void refundQuota(UserLimit limit, long today) {
+        if (dailyQuota <= 0) {
+            return;
+        }
+        while (true) {
+            long state = limit.quota.get();
+            int used = usedOn(state, today);
+            if (used == 0 || limit.quota.compareAndSet(state, (today << DAY_SHIFT) | (used - 1))) {
+                return;
+            }
+        }
+    }
+    
+    private int usedOn(long state, long today) {
+        return (state >>> DAY_SHIFT) == today ? (int) (state & USED_MASK) : 0;
+    }
+    
+    private RateLimitExceededException rateLimited(long waitMs) {
+        return new RateLimitExceededException(
+            "Too many interpretation requests, please slow down", toSeconds(waitMs));
+    }
+    
+    private RateLimitExceededException quotaExceeded(long now, long today) {
+        long midnight = (today + 1) * 86_400_000L;
+        return new RateLimitExceededException(
+            "Daily interpretation limit of " + dailyQuota + " reached", toSeconds(midnight - now));
+    }
+    
+    private long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+    
+    private static final class UserLimit {
+        // Theoretical arrival time in epoch millis
+        private final AtomicLong tat = new AtomicLong();
+        // UTC epoch day in the high 32 bits, interpretations used that day in the low 32
+        private final AtomicLong quota = new AtomicLong();
+    }
+}
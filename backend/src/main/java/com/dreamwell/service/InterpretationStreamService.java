@@ -0,0 +1,114 @@
+package com.dreamwell.service;
+
+import com.dreamwell.dto.DreamInterpretationDTO;
+import com.dreamwell.dto.InterpretationResult;
+import com.dreamwell.dto.InterpretationStatusResponse;
+import com.dreamwell.entity.Dream;
+import com.dreamwell.entity.DreamInterpretation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Relays Groq tokens to the browser as they are generated ("token" events), then persists the
+// assembled interpretation and sends a final "completed" or "failed" event.
+@Service
+public class InterpretationStreamService {
+    
+    private static final long STREAM_TIMEOUT_MS = 180_000L;
+    
+    @Autowired
+    private GroqApiService groqApiService;
+    
+    @Autowired
+    private InterpretationWriter interpretationWriter;
+    
+    @Autowired
+    private InterpretationNotifier notifier;
+    
+    public SseEmitter stream(Dream dream) {
+        Long dreamId = dream.getId();
+        String dreamText = dream.getDreamText();
+        String mood = dream.getMoodAtWake().name();
+        Integer sleepQuality = dream.getSleepQuality();
+        
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        StringBuilder content = new StringBuilder();
+        
+        Disposable subscription = groqApiService.streamDreamInterpretation(dreamText, mood, sleepQuality)
+                // Emitter writes and the final save block, so keep them off the Netty event loop
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(
+                    token -> {
+                        content.append(token);
+                        // Throws once the client is gone, which cancels the upstream Groq stream
+                        send(emitter, "token", token);
+                    },
+                    error -> fail(emitter, dreamId, error),
+                    () -> complete(emitter, dreamId, dreamText, mood, sleepQuality, content.toString())
+                );
+        
+        // A disconnect or timeout disposes the subscription, closing the Groq connection
+        emitter.onCompletion(subscription::dispose);
+        emitter.onError(e -> subscription.dispose());
+        emitter.onTimeout(() -> {
+            subscription.dispose();
+            emitter.complete();
+        });
+        
+        return emitter;
+    }
+    
+    private void complete(SseEmitter emitter, Long dreamId, String dreamText, String mood, Integer sleepQuality, String content) {
+        InterpretationStatusResponse status;
+        try {
+            InterpretationResult interpretation = groqApiService.completeStreamedInterpretation(dreamText, mood, sleepQuality, content);
+            DreamInterpretation dreamInterpretation = interpretationWriter.saveInterpretation(dreamId, interpretation);
+            status = new InterpretationStatusResponse(
+                dreamId,
+                Dream.InterpretationStatus.COMPLETED.name(),
+                null,
+                DreamInterpretationDTO.fromEntity(dreamInterpretation)
+            );
+        } catch (Exception e) {
+            fail(emitter, dreamId, e);
+            return;
+        }
+        
+        notifier.publish(status);
+        try {
+            send(emitter, "completed", status);
+            emitter.complete();
+        } catch (UncheckedIOException | IllegalStateException e) {
+            // Client left after the last token; the interpretation is saved regardless
+        }
+    }
+    
+    // The stored status is left alone: a background job may still be working on this dream
+    private void fail(SseEmitter emitter, Long dreamId, Throwable error) {
+        if (error instanceof UncheckedIOException) {
+            return;
+        }
+        System.err.println("Interpretation stream failed for dream " + dreamId + ": " + error.getMessage());
+        try {
+            send(emitter, "failed", new InterpretationStatusResponse(
+                dreamId, Dream.InterpretationStatus.FAILED.name(), error.getMessage(), null
+            ));
+            emitter.complete();
+        } catch (UncheckedIOException | IllegalStateException e) {
+            // Client already gone
+        }
+    }
+    
+    private void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.dreamwell.service;
+
+import com.dreamwell.dto.InterpretationResult;
+import com.dreamwell.entity.Dream;
+import com.dreamwell.entity.DreamInterpretation;
+import com.dreamwell.repository.DreamInterpretationRepository;
+import com.dreamwell.repository.DreamRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+
+// Persists Groq results in short transactions; callers must not hold a transaction while calling Groq
+@Service
+public class InterpretationWriter {
+    
+    @Autowired
+    private DreamRepository dreamRepository;
+    
+    @Autowired
+    private DreamInterpretationRepository interpretationRepository;
+    
+    @Autowired
+    private AnalyticsRollupService rollupService;
+    
+    @Autowired
+    private SystemCounterService counterService;
+    
+    @Autowired
+    private DataVersionRegistry dataVersions;
+    
+    // Interpretation row, risk flag, status and symbol rollups commit together. The dream row is
+    // locked first so concurrent saves for one dream update a single interpretation in turn.
+    @Transactional
+    public DreamInterpretation saveInterpretation(Long dreamId, InterpretationResult interpretation) {
+        Dream dream = dreamRepository.findByIdForUpdate(dreamId)
+                .orElseThrow(() -> new RuntimeException("Dream not found"));
+        
+        Long userId = dream.getUser().getId();
+        
+        DreamInterpretation dreamInterpretation = interpretationRepository.findByDream(dream)
+                .orElse(new DreamInterpretation());
+        rollupService.recordSymbols(userId, dreamInterpretation.getSymbols(), -1);
+        counterService.recordSymbols(dreamInterpretation.getSymbols(), -1);
+        
+        dreamInterpretation.setDream(dream);
+        applyInterpretation(dreamInterpretation, interpretation);
+        rollupService.recordSymbols(userId, dreamInterpretation.getSymbols(), 1);
+        counterService.recordSymbols(dreamInterpretation.getSymbols(), 1);
+        
+        if (dreamInterpretation.getHasRiskFlag()) {
+            if (!Boolean.TRUE.equals(dream.getIsFlagged())) {
+                counterService.increment(SystemCounterService.FLAGGED_DREAMS, 1);
+            }
+            dream.setIsFlagged(true);
+            dream.setFlagReason(interpretation.riskFlags());
+        }
+        dream.setInterpretationStatus(Dream.InterpretationStatus.COMPLETED);
+        dream.setInterpretationError(null);
+        dataVersions.bump(userId);
+        
+        return interpretationRepository.save(dreamInterpretation);
+    }
+    
+    @Transactional
+    public void markFailed(Long dreamId, String error) {
+        dreamRepository.updateInterpretationStatus(dreamId, Dream.InterpretationStatus.FAILED, error);
+        dreamRepository.findUserIdById(dreamId).ifPresent(dataVersions::bump);
+    }
+    
+    private void applyInterpretation(DreamInterpretation dreamInterpretation, InterpretationResult interpretation) {
+        dreamInterpretation.setShortSummary(interpretation.shortSummary());
+        dreamInterpretation.setDetailedExplanation(interpretation.detailedExplanation());
+        dreamInterpretation.setPredictedEmotions(interpretation.predictedEmotions());
+        dreamInterpretation.setWhyOccurred(interpretation.whyOccurred());
+        dreamInterpretation.setSuggestedActions(interpretation.suggestedActions());
+        dreamInterpretation.setRiskFlags(interpretation.riskFlags());
+        dreamInterpretation.setSymbols(interpretation.symbols());
+        
+        // Check for risk flags
+        String riskFlags = interpretation.riskFlags().toLowerCase();
+        boolean hasRisk = !riskFlags.equals("none") && 
+                         (riskFlags.contains("self-harm") || 
+                          riskFlags.contains("violence") || 
+                          riskFlags.contains("suicide"));
+        dreamInterpretation.setHasRiskFlag(hasRisk);
+    }
+}
@@ -1,13 +1,15 @@
 package com.dreamwell.service;
 
+import com.dreamwell.dto.CursorPage;
 import com.dreamwell.dto.MoodEntryRequest;
 import com.dreamwell.dto.MoodEntryResponse;
+import com.dreamwell.dto.MoodEntrySummary;
 import com.dreamwell.entity.MoodEntry;
 import com.dreamwell.entity.User;
 import com.dreamwell.repository.MoodEntryRepository;
 import com.dreamwell.repository.UserRepository;
+import com.dreamwell.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +26,15 @@ public class MoodService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private AnalyticsRollupService rollupService;
+    
+    @Autowired
+    private SystemCounterService counterService;
+    
+    @Autowired
+    private DataVersionRegistry dataVersions;
+    
     @Transactional
     public MoodEntryResponse createMoodEntry(MoodEntryRequest request) {
         User user = getCurrentUser();
@@ -42,15 +53,32 @@ public class MoodService {
         entry.setTriggers(request.getTriggers());
         
         entry = moodEntryRepository.save(entry);
+        rollupService.recordMood(user.getId(), entry.getMood(), entry.getEntryDate(), 1);
+        counterService.increment(SystemCounterService.MOOD_ENTRIES, 1);
+        dataVersions.bump(user.getId());
         return MoodEntryResponse.fromEntity(entry);
     }
     
-    public List<MoodEntryResponse> getAllMoodEntries() {
+    public CursorPage<MoodEntryResponse> getAllMoodEntries(String cursor, Integer limit) {
         User user = getCurrentUser();
-        List<MoodEntry> entries = moodEntryRepository.findByUserOrderByEntryDateDesc(user);
-        return entries.stream()
+        CursorPage<MoodEntry> page = CursorPage.fetch(cursor, limit, LocalDate::parse,
+            pageable -> moodEntryRepository.findByUserOrderByEntryDateDescIdDesc(user, pageable),
+            (entryDate, id, pageable) -> moodEntryRepository.findPageAfter(user, entryDate, id, pageable),
+            MoodEntry::getEntryDate, MoodEntry::getId);
+        
+        List<MoodEntryResponse> responses = page.getItems().stream()
                 .map(MoodEntryResponse::fromEntity)
                 .collect(Collectors.toList());
+        return new CursorPage<>(responses, page.getNextCursor());
+    }
+    
+    // Projected rows for ?view=summary; paging matches getAllMoodEntries
+    public CursorPage<MoodEntrySummary> getMoodEntrySummaries(String cursor, Integer limit) {
+        Long userId = AuthenticatedUser.current().id();
+        return CursorPage.fetch(cursor, limit, LocalDate::parse,
+            pageable -> moodEntryRepository.findSummaries(userId, pageable),
+            (entryDate, id, pageable) -> moodEntryRepository.findSummariesAfter(userId, entryDate, id, pageable),
+            MoodEntrySummary::getEntryDate, MoodEntrySummary::getId);
     }
     
     public List<MoodEntryResponse> getMoodEntriesByDateRange(LocalDate startDate, LocalDate endDate) {
@@ -71,12 +99,16 @@ public class MoodService {
             throw new RuntimeException("Access denied");
         }
         
+        rollupService.recordMood(user.getId(), entry.getMood(), entry.getEntryDate(), -1);
+        
         entry.setEntryDate(request.getEntryDate());
         entry.setMood(MoodEntry.Mood.valueOf(request.getMood()));
         entry.setNotes(request.getNotes());
         entry.setTriggers(request.getTriggers());
         
         entry = moodEntryRepository.save(entry);
+        rollupService.recordMood(user.getId(), entry.getMood(), entry.getEntryDate(), 1);
+        dataVersions.bump(user.getId());
         return MoodEntryResponse.fromEntity(entry);
     }
     
@@ -90,12 +122,13 @@ public class MoodService {
             throw new RuntimeException("Access denied");
         }
         
+        rollupService.recordMood(user.getId(), entry.getMood(), entry.getEntryDate(), -1);
+        counterService.increment(SystemCounterService.MOOD_ENTRIES, -1);
         moodEntryRepository.delete(entry);
+        dataVersions.bump(user.getId());
     }
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return userRepository.getReferenceById(AuthenticatedUser.current().id());
     }
 }
@@ -0,0 +1,128 @@
+package com.dreamwell.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Sends a file with single-range support so an interrupted download can resume where it stopped.
+// When Tomcat offers sendfile (NIO connector, large enough files) the bytes go from the page cache
+// to the socket without entering the JVM; otherwise FileChannel.transferTo copies into the
+// response channel without an intermediate heap buffer on our side.
+@Service
+public class RangeFileSender {
+    
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    public void send(HttpServletRequest request, HttpServletResponse response,
+                     Path file, String contentType, String fileName, String etag) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName).build().toString());
+            
+            long[] range = rangeFor(request, length, etag);
+            if (range == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            long start = range[0];
+            long end = range[1];
+            
+            response.setContentType(contentType);
+            response.setContentLengthLong(end - start);
+            if (end - start < length) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            } else {
+                response.setStatus(HttpServletResponse.SC_OK);
+            }
+            if ("HEAD".equals(request.getMethod()) || end == start) {
+                return;
+            }
+            
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                // Tomcat opens the file itself once this request returns; end is exclusive
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end);
+                return;
+            }
+            
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    // The file shrank underneath us; the client sees a short body and retries
+                    break;
+                }
+                position += sent;
+            }
+            response.flushBuffer();
+        }
+    }
+    
+    // [start, end) to send, the whole file when there is no usable Range, or null for 416.
+    // Only single ranges are served partially; a multi-range request gets the whole file,
+    // which RFC 9110 allows.
+    private long[] rangeFor(HttpServletRequest request, long length, String etag) {
+        long[] whole = {0, length};
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return whole;
+        }
+        // A range is only valid against the version the client already holds part of
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return whole;
+        }
+        
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return whole;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the final n bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(length - suffix, 0), length};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length : Long.parseLong(last) + 1;
+            if (end <= start) {
+                return whole;
+            }
+            if (start >= length) {
+                return null;
+            }
+            end = Math.min(end, length);
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            // Malformed ranges are ignored, not rejected
+            return whole;
+        }
+    }
+}
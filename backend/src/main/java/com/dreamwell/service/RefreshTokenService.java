@@ -0,0 +1,131 @@
+package com.dreamwell.service;
+
+import com.dreamwell.entity.RefreshToken;
+import com.dreamwell.entity.User;
+import com.dreamwell.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+
+// Device sessions backed by refresh_tokens. Clients hold a random 256-bit token; the table
+// holds its SHA-256, looked up through a unique index. Presenting a token consumes it and
+// issues a new one for the same device.
+@Service
+public class RefreshTokenService {
+    
+    private static final int MAX_DEVICE_NAME_LENGTH = 255;
+    
+    private final SecureRandom secureRandom = new SecureRandom();
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Value("${jwt.refresh-token-expiration:604800000}")
+    private long refreshTokenExpirationMs;
+    
+    // Signing in on one more device than this drops the oldest session
+    @Value("${jwt.refresh-token.max-sessions:10}")
+    private int maxSessions;
+    
+    @Value("${jwt.refresh-token.purge-batch-size:1000}")
+    private int purgeBatchSize;
+    
+    // One round trip: the insert and the trim to max-sessions run as a single statement
+    public String create(Long userId, String deviceName) {
+        String token = generateToken();
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.insertAndTrim(
+            userId,
+            hash(token),
+            truncate(deviceName),
+            now.plus(Duration.ofMillis(refreshTokenExpirationMs)),
+            now,
+            Math.max(maxSessions - 1, 0)
+        );
+        return token;
+    }
+    
+    // Consumes the presented token and returns its replacement. Of two concurrent refreshes
+    // with the same token only one gets a new token; the other is refused.
+    @Transactional
+    public Rotation rotate(String token) {
+        if (token == null || token.isBlank()) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+        
+        // Expired rows are left for the scheduled purge
+        if (current.isExpired()) {
+            throw new RuntimeException("Refresh token expired");
+        }
+        if (refreshTokenRepository.deleteTokenById(current.getId()) == 0) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        
+        User user = current.getUser();
+        return new Rotation(user, create(user.getId(), current.getDeviceName()));
+    }
+    
+    public void revoke(String token) {
+        if (token != null && !token.isBlank()) {
+            refreshTokenRepository.deleteByTokenHash(hash(token));
+        }
+    }
+    
+    public void revokeAll(User user) {
+        refreshTokenRepository.deleteAllForUser(user);
+    }
+    
+    // Batches of purge-batch-size rows, each in its own short transaction
+    @Scheduled(cron = "${jwt.refresh-token.purge-cron:0 5 * * * *}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+            purged += deleted;
+        } while (deleted == purgeBatchSize);
+        
+        if (purged > 0) {
+            System.out.println("Purged " + purged + " expired refresh tokens");
+        }
+    }
+    
+    private String generateToken() {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private String truncate(String deviceName) {
+        if (deviceName == null || deviceName.length() <= MAX_DEVICE_NAME_LENGTH) {
+            return deviceName;
+        }
+        return deviceName.substring(0, MAX_DEVICE_NAME_LENGTH);
+    }
+    
+    public record Rotation(User user, String refreshToken) {
+    }
+}
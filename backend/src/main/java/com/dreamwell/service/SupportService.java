@@ -4,8 +4,8 @@ import com.dreamwell.entity.SupportTicket;
 import com.dreamwell.entity.User;
 import com.dreamwell.repository.SupportTicketRepository;
 import com.dreamwell.repository.UserRepository;
+import com.dreamwell.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +21,9 @@ public class SupportService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private SystemCounterService counterService;
+    
     @Transactional
     public SupportTicket createTicket(Map<String, String> request) {
         User user = null;
@@ -38,6 +41,7 @@ public class SupportService {
         ticket.setMessage(request.get("message"));
         ticket.setStatus(SupportTicket.Status.OPEN);
         
+        counterService.recordTicketStatus(SupportTicket.Status.OPEN, 1);
         return supportTicketRepository.save(ticket);
     }
     
@@ -59,8 +63,6 @@ public class SupportService {
     }
     
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return userRepository.getReferenceById(AuthenticatedUser.current().id());
     }
 }
@@ -0,0 +1,42 @@
+package com.dreamwell.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class SystemCounterJob {
+    
+    @Autowired
+    private SystemCounterService counterService;
+    
+    // Seeds the counters on first start and after writes made outside the services
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+    
+    @Scheduled(cron = "${admin.counters.reconcile-cron:0 15 * * * *}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+    
+    @Async
+    public void reconcileAsync() {
+        reconcile();
+    }
+    
+    private void reconcile() {
+        try {
+            long start = System.currentTimeMillis();
+            counterService.reconcile();
+            System.out.println("System counters reconciled in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("System counter reconcile failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.dreamwell.service;
+
+import com.dreamwell.entity.SupportTicket;
+import com.dreamwell.entity.SystemCounter;
+import com.dreamwell.entity.SystemCounter.Category;
+import com.dreamwell.repository.DreamInterpretationRepository;
+import com.dreamwell.repository.DreamRepository;
+import com.dreamwell.repository.MoodEntryRepository;
+import com.dreamwell.repository.SupportTicketRepository;
+import com.dreamwell.repository.SystemCounterRepository;
+import com.dreamwell.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// System-wide counters for the admin dashboard, adjusted inside the caller's transaction.
+// reconcile() resets them from COUNT queries to repair any drift.
+@Service
+public class SystemCounterService {
+    
+    public static final String USERS = "USERS";
+    public static final String ACTIVE_USERS = "ACTIVE_USERS";
+    public static final String DREAMS = "DREAMS";
+    public static final String FLAGGED_DREAMS = "FLAGGED_DREAMS";
+    public static final String MOOD_ENTRIES = "MOOD_ENTRIES";
+    
+    @Autowired
+    private SystemCounterRepository counterRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private DreamRepository dreamRepository;
+    
+    @Autowired
+    private DreamInterpretationRepository interpretationRepository;
+    
+    @Autowired
+    private MoodEntryRepository moodEntryRepository;
+    
+    @Autowired
+    private SupportTicketRepository supportTicketRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Transactional
+    public void increment(String name, long delta) {
+        counterRepository.increment(Category.TOTAL.name(), name, delta);
+    }
+    
+    // New accounts start active, so both totals move together in one statement
+    @Transactional
+    public void recordSignup() {
+        counterRepository.incrementPair(Category.TOTAL.name(), USERS, ACTIVE_USERS, 1);
+    }
+    
+    // Dreams, interpretations and mood entries are deleted in bulk with the account, so their
+    // counts are read in one query and subtracted in the deleting transaction, before the delete
+    @Transactional
+    public void recordAccountDeleted(Long userId, boolean active) {
+        Object[] totals = userRepository.findAccountTotals(userId).get(0);
+        counterRepository.increment(Category.TOTAL.name(), USERS, -1);
+        if (active) {
+            counterRepository.increment(Category.TOTAL.name(), ACTIVE_USERS, -1);
+        }
+        decrement(DREAMS, ((Number) totals[0]).longValue());
+        decrement(FLAGGED_DREAMS, ((Number) totals[1]).longValue());
+        decrement(MOOD_ENTRIES, ((Number) totals[2]).longValue());
+        
+        Map<String, Long> symbolCounts = new HashMap<>();
+        for (String symbol : AnalyticsRollupService.splitSymbols((String) totals[3])) {
+            symbolCounts.merge(symbol, 1L, Long::sum);
+        }
+        symbolCounts.forEach((symbol, count) ->
+            counterRepository.increment(Category.SYMBOL.name(), symbol, -count)
+        );
+    }
+    
+    @Transactional
+    public void recordTicketStatus(SupportTicket.Status status, long delta) {
+        increment(ticketCounter(status), delta);
+    }
+    
+    @Transactional
+    public void recordSymbols(String symbols, int sign) {
+        for (String symbol : AnalyticsRollupService.splitSymbols(symbols)) {
+            counterRepository.increment(Category.SYMBOL.name(), symbol, sign);
+        }
+    }
+    
+    // Every total keyed by counter name; missing counters read as zero
+    @Transactional(readOnly = true)
+    public Map<String, Long> getTotals() {
+        Map<String, Long> totals = new HashMap<>();
+        for (SystemCounter counter : counterRepository.findByCategory(Category.TOTAL)) {
+            totals.put(counter.getName(), counter.getValue());
+        }
+        return totals;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<SystemCounter> getTopSymbols() {
+        return counterRepository.findTop10ByCategoryAndValueGreaterThanOrderByValueDesc(Category.SYMBOL, 0L);
+    }
+    
+    // No surrounding transaction: each total is counted and then written in its own short
+    // transaction, so the hot TOTAL rows are locked only for a single upsert and increments
+    // committed while another counter is being counted are kept
+    public void reconcile() {
+        reset(USERS, userRepository.count());
+        reset(ACTIVE_USERS, userRepository.countByIsActive(true));
+        reset(DREAMS, dreamRepository.count());
+        reset(FLAGGED_DREAMS, dreamRepository.countByIsFlagged(true));
+        reset(MOOD_ENTRIES, moodEntryRepository.count());
+        for (SupportTicket.Status status : SupportTicket.Status.values()) {
+            reset(ticketCounter(status), supportTicketRepository.countByStatus(status));
+        }
+        
+        // The interpretation scan runs before any SYMBOL row is touched
+        Map<String, Long> symbolCounts = new HashMap<>();
+        for (String symbols : interpretationRepository.findAllSymbols()) {
+            for (String symbol : AnalyticsRollupService.splitSymbols(symbols)) {
+                symbolCounts.merge(symbol, 1L, Long::sum);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            counterRepository.deleteByCategory(Category.SYMBOL);
+            symbolCounts.forEach((symbol, count) ->
+                counterRepository.set(Category.SYMBOL.name(), symbol, count)
+            );
+        });
+    }
+    
+    public static String ticketCounter(SupportTicket.Status status) {
+        return "TICKETS_" + status.name();
+    }
+    
+    private void decrement(String name, long count) {
+        if (count > 0) {
+            counterRepository.increment(Category.TOTAL.name(), name, -count);
+        }
+    }
+    
+    private void reset(String name, long value) {
+        transactionTemplate.executeWithoutResult(status ->
+            counterRepository.set(Category.TOTAL.name(), name, value)
+        );
+    }
+}
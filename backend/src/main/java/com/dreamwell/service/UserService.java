@@ -1,13 +1,22 @@
 package com.dreamwell.service;
 
+import com.dreamwell.dto.InterpretationUsage;
 import com.dreamwell.dto.UserDTO;
 import com.dreamwell.entity.User;
+import com.dreamwell.repository.DreamInterpretationRepository;
+import com.dreamwell.repository.DreamRepository;
+import com.dreamwell.repository.IdempotencyRecordRepository;
+import com.dreamwell.repository.MoodEntryRepository;
+import com.dreamwell.repository.RefreshTokenRepository;
+import com.dreamwell.repository.SupportTicketRepository;
 import com.dreamwell.repository.UserRepository;
+import com.dreamwell.security.AccountStatusRegistry;
+import com.dreamwell.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Map;
 
@@ -20,9 +29,56 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private AnalyticsRollupService rollupService;
+    
+    @Autowired
+    private SystemCounterService counterService;
+    
+    @Autowired
+    private AccountStatusRegistry accountStatusRegistry;
+    
+    @Autowired
+    private InterpretationRateLimiter rateLimiter;
+    
+    @Autowired
+    private DataVersionRegistry dataVersions;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ExportJobService exportJobService;
+    
+    @Autowired
+    private DreamRepository dreamRepository;
+    
+    @Autowired
+    private DreamInterpretationRepository interpretationRepository;
+    
+    @Autowired
+    private MoodEntryRepository moodEntryRepository;
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private SupportTicketRepository supportTicketRepository;
+    
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    
     public UserDTO getCurrentUserProfile() {
         User user = getCurrentUser();
-        return UserDTO.fromEntity(user);
+        UserDTO profile = UserDTO.fromEntity(user);
+        profile.setInterpretationUsage(rateLimiter.getUsage(user.getId()));
+        return profile;
+    }
+    
+    // Rate limit state that changes without a write; cheap in memory mode
+    public String getUsageTag() {
+        InterpretationUsage usage = rateLimiter.getUsage(AuthenticatedUser.current().id());
+        return usage.getUsedToday() + "." + usage.getBurstAvailable();
     }
     
     @Transactional
@@ -43,10 +99,12 @@ public class UserService {
         }
         
         user = userRepository.save(user);
+        dataVersions.bump(user.getId());
         return UserDTO.fromEntity(user);
     }
     
-    @Transactional
+    // Verifying and hashing wait on the bounded hash pool, so they run before any transaction;
+    // the write is a short compare-and-set that fails if the password changed in the meantime
     public void updatePassword(String currentPassword, String newPassword) {
         User user = getCurrentUser();
         
@@ -54,8 +112,13 @@ public class UserService {
             throw new RuntimeException("Current password is incorrect");
         }
         
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        String newHash = passwordEncoder.encode(newPassword);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepository.replacePassword(user.getId(), user.getPassword(), newHash) == 0) {
+                throw new RuntimeException("Password was changed by another request, please try again");
+            }
+            dataVersions.bump(user.getId());
+        });
     }
     
     @Transactional
@@ -66,7 +129,14 @@ public class UserService {
             User user = getCurrentUser();
             System.out.println("Current user found: " + user.getEmail() + " (ID: " + user.getId() + ")");
             System.out.println("Deleting user from database...");
+            rollupService.deleteForUser(user.getId());
+            exportJobService.deleteForUser(user.getId());
+            // Counters first: they are computed from the rows deleted below
+            counterService.recordAccountDeleted(user.getId(), Boolean.TRUE.equals(user.getIsActive()));
+            deleteOwnedRows(user);
             userRepository.delete(user);
+            accountStatusRegistry.accountDeleted(user.getId());
+            dataVersions.forget(user.getId());
             System.out.println("User deleted successfully");
             System.out.println("=== DELETE ACCOUNT DEBUG SUCCESS ===");
         } catch (Exception e) {
@@ -79,9 +149,19 @@ public class UserService {
         }
     }
     
+    // Nothing references users with ON DELETE CASCADE, so the account's rows go first
+    private void deleteOwnedRows(User user) {
+        interpretationRepository.deleteByUserId(user.getId());
+        dreamRepository.deleteByUserId(user.getId());
+        moodEntryRepository.deleteByUserId(user.getId());
+        refreshTokenRepository.deleteAllForUser(user);
+        idempotencyRecordRepository.deleteByUserId(user.getId());
+        supportTicketRepository.detachUser(user.getId());
+        supportTicketRepository.detachReplier(user.getId());
+    }
+    
     private User getCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email)
+        return userRepository.findById(AuthenticatedUser.current().id())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 }
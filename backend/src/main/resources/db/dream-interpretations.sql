@@ -0,0 +1,16 @@
+-- One interpretation per dream (see InterpretationWriter).
+-- Runs after Hibernate has created/updated the tables on every boot; every statement is idempotent.
+
+-- Concurrent saves before the constraint existed could leave duplicates: keep the newest row.
+-- Guarded so the self-join only runs until the unique index exists.
+DO $$
+BEGIN
+    IF to_regclass('idx_dream_interpretations_dream_id') IS NULL THEN
+        DELETE FROM dream_interpretations a
+            USING dream_interpretations b
+            WHERE a.dream_id = b.dream_id AND a.id < b.id;
+    END IF;
+END
+$$^;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_dream_interpretations_dream_id ON dream_interpretations (dream_id)^;
@@ -0,0 +1,12 @@
+-- Full-text search support for dreams (PostgreSQL 12+).
+-- Runs after Hibernate has created/updated the tables; every statement is idempotent.
+
+-- Generated column: Postgres keeps it current on every insert and update
+ALTER TABLE dreams ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(tags, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(dream_text, '')), 'C')
+    ) STORED^;
+
+CREATE INDEX IF NOT EXISTS idx_dreams_search_vector ON dreams USING GIN (search_vector)^;
@@ -0,0 +1,5 @@
+-- One queued or running export per user (see ExportJobService.create).
+-- Runs after Hibernate has created/updated the tables on every boot; every statement is idempotent.
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_export_jobs_active_user ON export_jobs (user_id)
+    WHERE status IN ('QUEUED', 'RUNNING')^;
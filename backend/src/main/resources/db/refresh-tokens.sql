@@ -0,0 +1,22 @@
+-- Refresh tokens are stored as SHA-256 hashes (see RefreshToken).
+-- Runs after Hibernate has created/updated the tables on every boot; every statement is idempotent.
+
+-- Upgrade path for rows written before hashing: hash the plaintext token, then drop it. Guarded so
+-- later boots neither lock the table nor add and drop a column (each drop uses up an attribute slot).
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'refresh_tokens' AND column_name = 'token') THEN
+        ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS token_hash varchar(64);
+        UPDATE refresh_tokens SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex')
+            WHERE token IS NOT NULL AND token_hash IS NULL;
+        ALTER TABLE refresh_tokens DROP COLUMN token;
+        DELETE FROM refresh_tokens WHERE token_hash IS NULL;
+        ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+    END IF;
+END
+$$^;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_refresh_tokens_token_hash ON refresh_tokens (token_hash)^;
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id ON refresh_tokens (user_id)^;
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date)^;
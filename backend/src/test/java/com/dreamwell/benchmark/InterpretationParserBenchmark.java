@@ -0,0 +1,112 @@
+package com.dreamwell.benchmark;
+
+import com.dreamwell.dto.InterpretationResult;
+import com.dreamwell.service.InterpretationParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Groq chat completion response to interpretation, old parser against new. The old one is the
+// tree-based GroqApiService.parseDreamInterpretation: readTree, fence stripping with substring,
+// four replaceAll passes, a second readTree and a HashMap copy. The new one is
+// InterpretationParser.extractContent then parse, streaming into InterpretationResult.
+// Payloads are a JSON-mode response and a fenced one as the model writes without JSON mode.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpretationParserBenchmark {
+    
+    @Param({"json", "fenced"})
+    private String payload;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InterpretationParser parser = new InterpretationParser();
+    private String response;
+    
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, String> interpretation = new LinkedHashMap<>();
+        interpretation.put("shortSummary", "A dream about searching for a lost door in a flooded house, reflecting unfinished business.");
+        interpretation.put("detailedExplanation", "Water filling the rooms often mirrors emotions that feel hard to contain.\n\n"
+            + "The locked door suggests a choice you have been putting off, and the search itself shows you are ready "
+            + "to face it. Returning to the same hallway repeatedly points to a pattern rather than a single event.");
+        interpretation.put("predictedEmotions", "anxiety, curiosity, relief");
+        interpretation.put("whyOccurred", "Recent stress at work and an upcoming decision are likely on your mind before sleep.");
+        interpretation.put("suggestedActions", "- Write down the decision you are avoiding\n- Take ten minutes to wind down before bed\n"
+            + "- Note whether the dream returns after you act");
+        interpretation.put("riskFlags", "none");
+        interpretation.put("symbols", "water, door, house, hallway, key");
+        
+        String content = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(interpretation);
+        if ("fenced".equals(payload)) {
+            content = "```json\n" + content + "\n```";
+        }
+        response = objectMapper.writeValueAsString(Map.of(
+            "id", "chatcmpl-benchmark",
+            "model", "llama-3.3-70b-versatile",
+            "choices", List.of(Map.of(
+                "index", 0,
+                "message", Map.of("role", "assistant", "content", content),
+                "finish_reason", "stop"
+            )),
+            "usage", Map.of("prompt_tokens", 412, "completion_tokens", 238, "total_tokens", 650)
+        ));
+    }
+    
+    @Benchmark
+    public Map<String, String> treeParser() throws Exception {
+        JsonNode root = objectMapper.readTree(response);
+        String content = root.path("choices").get(0).path("message").path("content").asText();
+        
+        content = content.trim();
+        if (content.startsWith("```json")) {
+            content = content.substring(7);
+        }
+        if (content.startsWith("```")) {
+            content = content.substring(3);
+        }
+        if (content.endsWith("```")) {
+            content = content.substring(0, content.length() - 3);
+        }
+        content = content.trim();
+        content = content.replaceAll("\\r\\n", " ")
+                       .replaceAll("\\n", " ")
+                       .replaceAll("\\r", " ")
+                       .replaceAll("\\t", " ");
+        
+        JsonNode interpretationNode = objectMapper.readTree(content);
+        Map<String, String> interpretation = new HashMap<>();
+        interpretation.put("shortSummary", interpretationNode.path("shortSummary").asText());
+        interpretation.put("detailedExplanation", interpretationNode.path("detailedExplanation").asText());
+        interpretation.put("predictedEmotions", interpretationNode.path("predictedEmotions").asText());
+        interpretation.put("whyOccurred", interpretationNode.path("whyOccurred").asText());
+        interpretation.put("suggestedActions", interpretationNode.path("suggestedActions").asText());
+        interpretation.put("riskFlags", interpretationNode.path("riskFlags").asText());
+        interpretation.put("symbols", interpretationNode.path("symbols").asText());
+        return interpretation;
+    }
+    
+    @Benchmark
+    public InterpretationResult streamingParser() {
+        return parser.parse(parser.extractContent(response));
+    }
+}
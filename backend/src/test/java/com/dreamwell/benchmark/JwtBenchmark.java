@@ -0,0 +1,75 @@
+package com.dreamwell.benchmark;
+
+import com.dreamwell.entity.User;
+import com.dreamwell.security.AuthenticatedUser;
+import com.dreamwell.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of access-token verification in the JWT filter. The baseline is the old
+// path: three parses (extractUsername, then validateToken's extractUsername and
+// extractExpiration), each rebuilding the HMAC key and the parser. The current path is
+// JwtUtil.parseAccessToken, one parse with the key and parser built at startup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    
+    private static final String SECRET = "dreamwell-super-secret-key-change-in-production-minimum-256-bits-required-for-hs256-algorithm";
+    
+    private JwtUtil jwtUtil;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenExpiration", 3600000L);
+        jwtUtil.init();
+        
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("sleeper@example.com");
+        token = jwtUtil.generateAccessToken(user);
+    }
+    
+    @Benchmark
+    public boolean perRequestParsers() {
+        String username = parse(token).getSubject();
+        String again = parse(token).getSubject();
+        Date expiration = parse(token).getExpiration();
+        return username.equals(again) && expiration.after(new Date());
+    }
+    
+    @Benchmark
+    public AuthenticatedUser singleParse() {
+        return jwtUtil.parseAccessToken(token);
+    }
+    
+    private static Claims parse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
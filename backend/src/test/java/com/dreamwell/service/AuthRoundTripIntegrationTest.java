@@ -0,0 +1,73 @@
+package com.dreamwell.service;
+
+import com.dreamwell.PostgresIntegrationTest;
+import com.dreamwell.dto.AuthRequest;
+import com.dreamwell.dto.AuthResponse;
+import com.dreamwell.dto.SignupRequest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Database round trips per signup and login, counted with Hibernate statistics. Signup is the
+// user insert, the counter update and the session insert; login is the user lookup done by
+// authentication and the session insert. A duplicate email is caught by the constraint.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class AuthRoundTripIntegrationTest extends PostgresIntegrationTest {
+    
+    // Its startup reconcile runs asynchronously and would be counted with the statements under test
+    @MockBean
+    private SystemCounterJob systemCounterJob;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    @Test
+    void signupAndLoginUseTheMinimumRoundTrips() {
+        SignupRequest signup = new SignupRequest();
+        signup.setName("Round Trip");
+        signup.setEmail("trips-" + UUID.randomUUID() + "@example.com");
+        signup.setPassword("password123");
+        
+        statistics.clear();
+        AuthResponse created = authService.signup(signup, "test-device");
+        assertNotNull(created.getRefreshToken());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        
+        AuthRequest login = new AuthRequest();
+        login.setEmail(signup.getEmail());
+        login.setPassword(signup.getPassword());
+        
+        statistics.clear();
+        AuthResponse loggedIn = authService.login(login, "test-device");
+        assertEquals(created.getUser().getId(), loggedIn.getUser().getId());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        
+        statistics.clear();
+        RuntimeException duplicate = assertThrows(RuntimeException.class, () -> authService.signup(signup, "test-device"));
+        assertEquals("Email already exists", duplicate.getMessage());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
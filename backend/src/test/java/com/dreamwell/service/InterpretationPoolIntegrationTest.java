@@ -0,0 +1,146 @@
+package com.dreamwell.service;
+
+import com.dreamwell.PostgresIntegrationTest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Interpretations wait on a slow Groq (the local stub with injected latency) without holding a
+// database connection: with more jobs in flight than pooled connections, the pool still goes idle
+// and list requests are served while every interpretation is PENDING.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@ActiveProfiles("test")
+class InterpretationPoolIntegrationTest extends PostgresIntegrationTest {
+    
+    private static final int POOL_SIZE = 2;
+    private static final int DREAMS = 4;
+    private static final long GROQ_LATENCY_MS = 4000;
+    
+    @Autowired
+    private TestRestTemplate restTemplate;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @DynamicPropertySource
+    static void groqStubProperties(DynamicPropertyRegistry registry) {
+        int port = freePort();
+        registry.add("server.port", () -> port);
+        registry.add("groq.stub.enabled", () -> "true");
+        registry.add("groq.stub.latency-ms", () -> GROQ_LATENCY_MS);
+        registry.add("groq.api.url", () -> "http://localhost:" + port + "/api/public/groq-stub/chat/completions");
+        registry.add("groq.http.http2", () -> "false");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> POOL_SIZE);
+        registry.add("spring.datasource.hikari.connection-timeout", () -> 1000);
+    }
+    
+    @Test
+    void slowGroqCallsDoNotHoldPooledConnections() throws Exception {
+        HttpHeaders headers = signUp();
+        
+        List<Long> dreamIds = new ArrayList<>();
+        for (int i = 0; i < DREAMS; i++) {
+            ResponseEntity<JsonNode> created = restTemplate.exchange("/dreams", HttpMethod.POST,
+                new HttpEntity<>(dream(i), headers), JsonNode.class);
+            assertEquals(HttpStatus.ACCEPTED, created.getStatusCode());
+            dreamIds.add(created.getBody().path("data").path("id").asLong());
+        }
+        
+        // Mid-latency: every job is waiting on the stub, more of them than there are connections
+        Thread.sleep(GROQ_LATENCY_MS / 4);
+        for (Long dreamId : dreamIds) {
+            assertEquals("PENDING", interpretationStatus(dreamId, headers));
+        }
+        assertTrue(poolGoesIdle(), "A connection stayed checked out while Groq was slow");
+        
+        long started = System.currentTimeMillis();
+        ResponseEntity<JsonNode> list = restTemplate.exchange("/dreams", HttpMethod.GET,
+            new HttpEntity<>(headers), JsonNode.class);
+        assertEquals(HttpStatus.OK, list.getStatusCode());
+        assertEquals(DREAMS, list.getBody().path("data").size());
+        assertTrue(System.currentTimeMillis() - started < GROQ_LATENCY_MS / 2, "Listing dreams waited on the pool");
+        
+        long deadline = System.currentTimeMillis() + GROQ_LATENCY_MS * 5;
+        for (Long dreamId : dreamIds) {
+            String status = interpretationStatus(dreamId, headers);
+            while ("PENDING".equals(status) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(200);
+                status = interpretationStatus(dreamId, headers);
+            }
+            assertEquals("COMPLETED", status);
+        }
+    }
+    
+    // Scheduled jobs may borrow a connection for a moment; a held one would never come back
+    private boolean poolGoesIdle() throws Exception {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        long deadline = System.currentTimeMillis() + GROQ_LATENCY_MS / 4;
+        while (System.currentTimeMillis() < deadline) {
+            if (hikari.getHikariPoolMXBean().getActiveConnections() == 0) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+    
+    private HttpHeaders signUp() {
+        String email = "pool-" + UUID.randomUUID() + "@example.com";
+        ResponseEntity<JsonNode> response = restTemplate.postForEntity("/auth/signup",
+            Map.of("name", "Pool Test", "email", email, "password", "password123"), JsonNode.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(response.getBody().path("data").path("accessToken").asText());
+        return headers;
+    }
+    
+    private String interpretationStatus(Long dreamId, HttpHeaders headers) {
+        ResponseEntity<JsonNode> response = restTemplate.exchange("/dreams/" + dreamId + "/interpretation",
+            HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class);
+        return response.getBody().path("data").path("status").asText();
+    }
+    
+    // Distinct text per dream so none is answered from the interpretation cache
+    private static Map<String, Object> dream(int i) {
+        return Map.of(
+            "title", "Dream " + i,
+            "dreamText", "I walked through a house with " + (i + 3) + " doors and a river in the hallway",
+            "moodAtWake", "CONFUSED",
+            "sleepQuality", 3,
+            "dreamDate", LocalDateTime.now().minusDays(i).withNano(0).toString()
+        );
+    }
+    
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
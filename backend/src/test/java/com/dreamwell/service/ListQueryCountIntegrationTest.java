@@ -0,0 +1,170 @@
+package com.dreamwell.service;
+
+import com.dreamwell.PostgresIntegrationTest;
+import com.dreamwell.entity.Dream;
+import com.dreamwell.entity.DreamInterpretation;
+import com.dreamwell.entity.MoodEntry;
+import com.dreamwell.entity.User;
+import com.dreamwell.repository.DreamInterpretationRepository;
+import com.dreamwell.repository.DreamRepository;
+import com.dreamwell.repository.MoodEntryRepository;
+import com.dreamwell.repository.UserRepository;
+import com.dreamwell.security.AuthenticatedUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The list endpoints and analytics must cost a fixed number of statements however many rows a
+// user has: no per-dream interpretation lookup, no per-row lazy loads. Counted with Hibernate
+// statistics for a user with one dream and a user with many.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ListQueryCountIntegrationTest extends PostgresIntegrationTest {
+    
+    // Its startup reconcile runs asynchronously and would be counted with the statements under test
+    @MockBean
+    private SystemCounterJob systemCounterJob;
+    
+    private static final int MANY = 25;
+    
+    @Autowired
+    private DreamService dreamService;
+    
+    @Autowired
+    private MoodService moodService;
+    
+    @Autowired
+    private AnalyticsService analyticsService;
+    
+    @Autowired
+    private AdminService adminService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private DreamRepository dreamRepository;
+    
+    @Autowired
+    private DreamInterpretationRepository interpretationRepository;
+    
+    @Autowired
+    private MoodEntryRepository moodEntryRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    private User oneDreamUser;
+    private User manyDreamsUser;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        oneDreamUser = userWithDreams(1);
+        manyDreamsUser = userWithDreams(MANY);
+    }
+    
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void dreamListCostsTheSameForOneDreamAndMany() {
+        long one = statementsFor(oneDreamUser, () -> assertEquals(1, dreamService.getAllDreams(null, 50).getItems().size()));
+        long many = statementsFor(manyDreamsUser, () -> assertEquals(MANY, dreamService.getAllDreams(null, 50).getItems().size()));
+        
+        // The page of dreams plus one IN query for their interpretations
+        assertEquals(2, many);
+        assertEquals(one, many);
+    }
+    
+    @Test
+    void summaryListsCostTheSameForOneRowAndMany() {
+        assertEquals(
+            statementsFor(oneDreamUser, () -> dreamService.getDreamSummaries(null, 50)),
+            statementsFor(manyDreamsUser, () -> dreamService.getDreamSummaries(null, 50)));
+        assertEquals(
+            statementsFor(oneDreamUser, () -> moodService.getAllMoodEntries(null, 50)),
+            statementsFor(manyDreamsUser, () -> moodService.getAllMoodEntries(null, 50)));
+        assertEquals(
+            statementsFor(oneDreamUser, () -> moodService.getMoodEntrySummaries(null, 50)),
+            statementsFor(manyDreamsUser, () -> moodService.getMoodEntrySummaries(null, 50)));
+    }
+    
+    @Test
+    void symbolAnalyticsCostTheSameForOneDreamAndMany() {
+        // The first call backfills the user's rollups; only steady-state reads are compared
+        statementsFor(oneDreamUser, analyticsService::getUserAnalytics);
+        statementsFor(manyDreamsUser, analyticsService::getUserAnalytics);
+        
+        assertEquals(
+            statementsFor(oneDreamUser, analyticsService::getUserAnalytics),
+            statementsFor(manyDreamsUser, analyticsService::getUserAnalytics));
+        
+        long global = statementsFor(manyDreamsUser, adminService::getSystemAnalytics);
+        userWithDreams(MANY);
+        assertEquals(global, statementsFor(manyDreamsUser, adminService::getSystemAnalytics));
+    }
+    
+    private long statementsFor(User user, Runnable call) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), user.getStatusVersion());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            principal, null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))));
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+    
+    // Written straight through the repositories so no interpretation job is started
+    private User userWithDreams(int count) {
+        User user = new User();
+        user.setName("Query Count");
+        user.setEmail("queries-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("not-a-real-hash");
+        user = userRepository.save(user);
+        
+        for (int i = 0; i < count; i++) {
+            Dream dream = new Dream();
+            dream.setUser(user);
+            dream.setTitle("Dream " + i);
+            dream.setDreamText("A dream about door number " + i);
+            dream.setMoodAtWake(Dream.Mood.PEACEFUL);
+            dream.setSleepQuality(4);
+            dream.setDreamDate(LocalDateTime.now().minusDays(i));
+            dream.setInterpretationStatus(Dream.InterpretationStatus.COMPLETED);
+            dream = dreamRepository.save(dream);
+            
+            DreamInterpretation interpretation = new DreamInterpretation();
+            interpretation.setDream(dream);
+            interpretation.setShortSummary("Summary " + i);
+            interpretation.setSymbols("water, door, symbol" + i);
+            interpretationRepository.save(interpretation);
+            
+            MoodEntry mood = new MoodEntry();
+            mood.setUser(user);
+            mood.setEntryDate(LocalDate.now().minusDays(i));
+            mood.setMood(MoodEntry.Mood.HAPPY);
+            moodEntryRepository.save(mood);
+        }
+        return user;
+    }
+}
@@ -61,6 +61,11 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // End this device's session on the server; other devices stay signed in
+    const storedRefreshToken = localStorage.getItem('refreshToken');
+    if (storedRefreshToken) {
+      authAPI.logout(storedRefreshToken).catch(() => {});
+    }
     localStorage.removeItem('accessToken');
     localStorage.removeItem('refreshToken');
     localStorage.removeItem('user');
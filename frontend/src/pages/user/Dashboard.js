@@ -23,8 +23,8 @@ const Dashboard = () => {
   const fetchDashboardData = async () => {
     try {
       const [dreamsRes, moodsRes, analyticsRes] = await Promise.all([
-        dreamAPI.getAllDreams(),
-        moodAPI.getAllMoodEntries(),
+        dreamAPI.getAllDreams({ limit: 5, view: 'summary' }),
+        moodAPI.getAllMoodEntries({ limit: 7, view: 'summary' }),
         analyticsAPI.getAnalytics(),
       ]);
 
@@ -169,7 +169,7 @@ const Dashboard = () => {
                           {dream.title}
                         </h3>
                         <p className="text-sm text-gray-600 dark:text-gray-400 line-clamp-2">
-                          {dream.dreamText}
+                          {dream.excerpt}
                         </p>
                         <div className="flex items-center space-x-4 mt-2">
                           <span className="text-xs text-gray-500 dark:text-gray-500">
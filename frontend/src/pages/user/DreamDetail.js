@@ -1,4 +1,4 @@
-import React, { useEffect, useState } from 'react';
+import React, { useEffect, useRef, useState } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import Navbar from '../../components/Navbar';
 import Footer from '../../components/Footer';
@@ -14,11 +14,38 @@ const DreamDetail = () => {
   const [dream, setDream] = useState(null);
   const [loading, setLoading] = useState(true);
   const [reinterpreting, setReinterpreting] = useState(false);
+  const [streamedText, setStreamedText] = useState('');
+  const streamAbort = useRef(null);
 
   useEffect(() => {
     fetchDream();
   }, [id]);
 
+  // Closing the page aborts the stream, which also stops generation on the server
+  useEffect(() => () => streamAbort.current?.abort(), []);
+
+  // Interpretation is generated in the background; poll until it lands
+  useEffect(() => {
+    if (dream?.interpretationStatus !== 'PENDING') return;
+
+    const timer = setInterval(async () => {
+      try {
+        const response = await dreamAPI.getInterpretationStatus(id);
+        const { status, interpretation, error } = response.data.data;
+        if (status === 'PENDING') return;
+
+        setDream(prev => ({ ...prev, interpretationStatus: status, interpretation }));
+        if (status === 'FAILED') {
+          toast.error(error || 'Failed to interpret dream');
+        }
+      } catch (error) {
+        // Keep polling; transient errors are expected while the worker is busy
+      }
+    }, 3000);
+
+    return () => clearInterval(timer);
+  }, [id, dream?.interpretationStatus]);
+
   const fetchDream = async () => {
     try {
       const response = await dreamAPI.getDreamById(id);
@@ -33,14 +60,25 @@ const DreamDetail = () => {
 
   const handleReinterpret = async () => {
     setReinterpreting(true);
+    setStreamedText('');
+    streamAbort.current = new AbortController();
     try {
-      const response = await dreamAPI.reinterpretDream(id);
-      setDream(prev => ({ ...prev, interpretation: response.data.data }));
-      toast.success('Dream reinterpreted successfully!');
+      await dreamAPI.streamInterpretation(id, {
+        token: (token) => setStreamedText(prev => prev + token),
+        completed: (data) => {
+          const { interpretation } = JSON.parse(data);
+          setDream(prev => ({ ...prev, interpretationStatus: 'COMPLETED', interpretation }));
+          toast.success('Dream reinterpreted successfully!');
+        },
+        failed: (data) => toast.error(JSON.parse(data).error || 'Failed to reinterpret dream'),
+      }, streamAbort.current.signal);
     } catch (error) {
-      toast.error('Failed to reinterpret dream');
+      if (error.name !== 'AbortError') {
+        toast.error('Failed to reinterpret dream');
+      }
     } finally {
       setReinterpreting(false);
+      setStreamedText('');
     }
   };
 
@@ -145,7 +183,28 @@ const DreamDetail = () => {
         )}
 
         {/* AI Interpretation */}
-        {interpretation && (
+        {dream.interpretationStatus === 'PENDING' && (
+          <div className="card mb-6 flex items-center space-x-3">
+            <RefreshCw className="w-5 h-5 text-primary-600 animate-spin" />
+            <p className="text-gray-700 dark:text-gray-300">Interpreting your dream...</p>
+          </div>
+        )}
+
+        {reinterpreting && (
+          <div className="card mb-6">
+            <div className="flex items-center space-x-3 mb-4">
+              <RefreshCw className="w-5 h-5 text-primary-600 animate-spin" />
+              <p className="text-gray-700 dark:text-gray-300">Interpreting your dream...</p>
+            </div>
+            {streamedText && (
+              <p className="text-gray-600 dark:text-gray-400 text-sm font-mono whitespace-pre-wrap break-words">
+                {streamedText}
+              </p>
+            )}
+          </div>
+        )}
+
+        {interpretation && !reinterpreting && (
           <>
             {/* Risk Flag Warning */}
             {interpretation.hasRiskFlag && (
@@ -1,4 +1,4 @@
-import React, { useState } from 'react';
+import React, { useRef, useState } from 'react';
 import { useNavigate } from 'react-router-dom';
 import Navbar from '../../components/Navbar';
 import Footer from '../../components/Footer';
@@ -10,6 +10,8 @@ import { Save, Sparkles } from 'lucide-react';
 const DreamLog = () => {
   const navigate = useNavigate();
   const [loading, setLoading] = useState(false);
+  // One key per version of the form: resubmitting the same dream cannot log it twice
+  const idempotencyKey = useRef(crypto.randomUUID());
   const [formData, setFormData] = useState({
     title: '',
     dreamText: '',
@@ -23,6 +25,7 @@ const DreamLog = () => {
 
   const handleChange = (e) => {
     const { name, value, type, checked } = e.target;
+    idempotencyKey.current = crypto.randomUUID();
     setFormData(prev => ({
       ...prev,
       [name]: type === 'checkbox' ? checked : value
@@ -34,8 +37,8 @@ const DreamLog = () => {
     setLoading(true);
 
     try {
-      const response = await dreamAPI.createDream(formData);
-      toast.success('Dream logged and interpreted successfully!');
+      const response = await dreamAPI.createDream(formData, idempotencyKey.current);
+      toast.success('Dream logged! Your interpretation is on its way.');
       navigate(`/dreams/${response.data.data.id}`);
     } catch (error) {
       toast.error(error.response?.data?.message || 'Failed to log dream');
@@ -12,7 +12,10 @@ const DreamsList = () => {
   const [dreams, setDreams] = useState([]);
   const [filteredDreams, setFilteredDreams] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [searchTerm, setSearchTerm] = useState('');
+  const [searchResults, setSearchResults] = useState(null);
   const [filterMood, setFilterMood] = useState('ALL');
 
   useEffect(() => {
@@ -21,13 +24,33 @@ const DreamsList = () => {
 
   useEffect(() => {
     filterDreams();
-  }, [searchTerm, filterMood, dreams]);
+  }, [searchResults, filterMood, dreams]);
+
+  // Search runs server-side so it covers dreams that are not loaded yet
+  useEffect(() => {
+    if (!searchTerm.trim()) {
+      setSearchResults(null);
+      return;
+    }
+
+    const timer = setTimeout(async () => {
+      try {
+        const response = await dreamAPI.searchDreams(searchTerm);
+        setSearchResults(response.data.data);
+      } catch (error) {
+        toast.error('Search failed');
+      }
+    }, 300);
+
+    return () => clearTimeout(timer);
+  }, [searchTerm]);
 
   const fetchDreams = async () => {
     try {
-      const response = await dreamAPI.getAllDreams();
+      const response = await dreamAPI.getAllDreams({ view: 'summary' });
       setDreams(response.data.data);
       setFilteredDreams(response.data.data);
+      setNextCursor(response.data.nextCursor || null);
     } catch (error) {
       toast.error('Failed to load dreams');
     } finally {
@@ -35,16 +58,21 @@ const DreamsList = () => {
     }
   };
 
-  const filterDreams = () => {
-    let filtered = dreams;
-
-    if (searchTerm) {
-      filtered = filtered.filter(dream =>
-        dream.title.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        dream.dreamText.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        dream.tags?.toLowerCase().includes(searchTerm.toLowerCase())
-      );
+  const loadMoreDreams = async () => {
+    setLoadingMore(true);
+    try {
+      const response = await dreamAPI.getAllDreams({ cursor: nextCursor, view: 'summary' });
+      setDreams(prev => [...prev, ...response.data.data]);
+      setNextCursor(response.data.nextCursor || null);
+    } catch (error) {
+      toast.error('Failed to load more dreams');
+    } finally {
+      setLoadingMore(false);
     }
+  };
+
+  const filterDreams = () => {
+    let filtered = searchResults ?? dreams;
 
     if (filterMood !== 'ALL') {
       filtered = filtered.filter(dream => dream.moodAtWake === filterMood);
@@ -137,7 +165,7 @@ const DreamsList = () => {
                 </div>
 
                 <p className="text-gray-600 dark:text-gray-400 mb-4 line-clamp-3">
-                  {truncateText(dream.dreamText, 150)}
+                  {truncateText(dream.excerpt ?? dream.dreamText, 150)}
                 </p>
 
                 {dream.tags && (
@@ -167,6 +195,14 @@ const DreamsList = () => {
             ))}
           </div>
         )}
+
+        {nextCursor && !searchResults && (
+          <div className="text-center mt-8">
+            <button onClick={loadMoreDreams} disabled={loadingMore} className="btn-secondary">
+              {loadingMore ? 'Loading...' : 'Load more dreams'}
+            </button>
+          </div>
+        )}
       </div>
 
       <Footer />
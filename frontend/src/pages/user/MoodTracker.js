@@ -8,6 +8,7 @@ import toast from 'react-hot-toast';
 
 const MoodTracker = () => {
   const [moods, setMoods] = useState([]);
+  const [monthMoods, setMonthMoods] = useState([]);
   const [loading, setLoading] = useState(true);
   const [selectedDate, setSelectedDate] = useState(new Date().toISOString().split('T')[0]);
   const [selectedMood, setSelectedMood] = useState('NEUTRAL');
@@ -31,6 +32,11 @@ const MoodTracker = () => {
     fetchMoods();
   }, []);
 
+  useEffect(() => {
+    fetchMonthMoods(currentMonth);
+  }, [currentMonth]);
+
+  // /moods is paged (newest first), so it only feeds the recent entries list
   const fetchMoods = async () => {
     try {
       const response = await moodAPI.getAllMoodEntries();
@@ -42,6 +48,21 @@ const MoodTracker = () => {
     }
   };
 
+  // The calendar loads exactly the visible month
+  const fetchMonthMoods = async (month) => {
+    const year = month.getFullYear();
+    const monthIndex = month.getMonth();
+    const pad = (n) => String(n).padStart(2, '0');
+    const startDate = `${year}-${pad(monthIndex + 1)}-01`;
+    const endDate = `${year}-${pad(monthIndex + 1)}-${pad(new Date(year, monthIndex + 1, 0).getDate())}`;
+    try {
+      const response = await moodAPI.getMoodEntriesByRange(startDate, endDate);
+      setMonthMoods(response.data.data);
+    } catch (error) {
+      toast.error('Failed to load mood calendar');
+    }
+  };
+
   const handleSubmit = async (e) => {
     e.preventDefault();
 
@@ -54,6 +75,7 @@ const MoodTracker = () => {
       });
       toast.success('Mood entry saved!');
       fetchMoods();
+      fetchMonthMoods(currentMonth);
       setNotes('');
       setTriggers('');
     } catch (error) {
@@ -62,7 +84,7 @@ const MoodTracker = () => {
   };
 
   const getMoodForDate = (date) => {
-    return moods.find(m => m.entryDate === date);
+    return monthMoods.find(m => m.entryDate === date);
   };
 
   // Generate calendar days for current month
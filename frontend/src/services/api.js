@@ -23,6 +23,27 @@ api.interceptors.request.use(
   }
 );
 
+// Refresh tokens are single-use, so concurrent 401s must share one refresh call
+let refreshPromise = null;
+
+const refreshAccessToken = () => {
+  if (!refreshPromise) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshPromise = axios
+      .post(`${API_BASE_URL}/auth/refresh-token`, { refreshToken })
+      .then((response) => {
+        const { accessToken, refreshToken: rotatedToken } = response.data.data;
+        localStorage.setItem('accessToken', accessToken);
+        localStorage.setItem('refreshToken', rotatedToken);
+        return accessToken;
+      })
+      .finally(() => {
+        refreshPromise = null;
+      });
+  }
+  return refreshPromise;
+};
+
 // Response interceptor to handle token refresh
 api.interceptors.response.use(
   (response) => response,
@@ -33,13 +54,7 @@ api.interceptors.response.use(
       originalRequest._retry = true;
 
       try {
-        const refreshToken = localStorage.getItem('refreshToken');
-        const response = await axios.post(`${API_BASE_URL}/auth/refresh-token`, {
-          refreshToken,
-        });
-
-        const { accessToken } = response.data.data;
-        localStorage.setItem('accessToken', accessToken);
+        const accessToken = await refreshAccessToken();
 
         originalRequest.headers.Authorization = `Bearer ${accessToken}`;
         return api(originalRequest);
@@ -58,26 +73,74 @@ api.interceptors.response.use(
 export const authAPI = {
   login: (email, password) => api.post('/auth/login', { email, password }),
   signup: (name, email, password) => api.post('/auth/signup', { name, email, password }),
+  logout: (refreshToken) => api.post('/auth/logout', { refreshToken }),
   forgotPassword: (email) => api.post('/auth/forgot-password', { email }),
   resetPassword: (token, newPassword) => api.post('/auth/reset-password', { token, newPassword }),
   verifyEmail: (token) => api.get(`/auth/verify-email?token=${token}`),
 };
 
+// Retries that carry the same key get the original response instead of running again
+const idempotent = (idempotencyKey) =>
+  idempotencyKey ? { headers: { 'Idempotency-Key': idempotencyKey } } : undefined;
+
 // Dream APIs
 export const dreamAPI = {
-  createDream: (dreamData) => api.post('/dreams', dreamData),
-  getAllDreams: () => api.get('/dreams'),
+  createDream: (dreamData, idempotencyKey) => api.post('/dreams', dreamData, idempotent(idempotencyKey)),
+  getAllDreams: (params) => api.get('/dreams', { params }),
   getDreamById: (id) => api.get(`/dreams/${id}`),
   updateDream: (id, dreamData) => api.put(`/dreams/${id}`, dreamData),
   deleteDream: (id) => api.delete(`/dreams/${id}`),
-  searchDreams: (keyword) => api.get(`/dreams/search?keyword=${keyword}`),
-  reinterpretDream: (id) => api.post(`/dreams/${id}/reinterpret`),
+  searchDreams: (keyword) => api.get('/dreams/search', { params: { keyword } }),
+  reinterpretDream: (id, idempotencyKey) =>
+    api.post(`/dreams/${id}/reinterpret`, null, idempotent(idempotencyKey)),
+  getInterpretationStatus: (id) => api.get(`/dreams/${id}/interpretation`),
+  streamInterpretation: (id, handlers, signal) =>
+    streamEvents(`/dreams/${id}/interpretation/stream`, handlers, signal),
+};
+
+// EventSource cannot send the Authorization header, so read the SSE stream with fetch.
+// handlers maps event names (token, completed, failed) to callbacks.
+const streamEvents = async (path, handlers, signal) => {
+  const response = await fetch(`${API_BASE_URL}${path}`, {
+    headers: {
+      Accept: 'text/event-stream',
+      Authorization: `Bearer ${localStorage.getItem('accessToken')}`,
+    },
+    signal,
+  });
+  if (!response.ok) {
+    throw new Error(`Stream request failed with status ${response.status}`);
+  }
+
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = '';
+
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+
+    let boundary;
+    while ((boundary = buffer.indexOf('\n\n')) !== -1) {
+      const block = buffer.slice(0, boundary);
+      buffer = buffer.slice(boundary + 2);
+
+      let event = 'message';
+      const data = [];
+      block.split('\n').forEach((line) => {
+        if (line.startsWith('event:')) event = line.slice(6).trim();
+        else if (line.startsWith('data:')) data.push(line.slice(5));
+      });
+      handlers[event]?.(data.join('\n'));
+    }
+  }
 };
 
 // Mood APIs
 export const moodAPI = {
   createMoodEntry: (moodData) => api.post('/moods', moodData),
-  getAllMoodEntries: () => api.get('/moods'),
+  getAllMoodEntries: (params) => api.get('/moods', { params }),
   getMoodEntriesByRange: (startDate, endDate) => 
     api.get(`/moods/range?startDate=${startDate}&endDate=${endDate}`),
   updateMoodEntry: (id, moodData) => api.put(`/moods/${id}`, moodData),
@@ -96,7 +159,12 @@ export const userAPI = {
 // Analytics APIs
 export const analyticsAPI = {
   getAnalytics: () => api.get('/analytics'),
-  exportData: () => api.get('/analytics/export', { responseType: 'blob' }),
+  // params: { format: 'csv' | 'ndjson', gzip: true }
+  exportData: (params) => api.get('/analytics/export', { params, responseType: 'blob' }),
+  // Background archive: create, poll until status is COMPLETED, then download
+  createExport: (format) => api.post('/analytics/exports', null, { params: { format } }),
+  getExport: (id) => api.get(`/analytics/exports/${id}`),
+  downloadExport: (id) => api.get(`/analytics/exports/${id}/download`, { responseType: 'blob' }),
 };
 
 // Support APIs